@@ -0,0 +1,160 @@
+import benchmark.Workload;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ *  operations measured by benchmarks of package benchmark, run on synthetic data. Every operation gets its own
+ *  network, so that training does not change networks used by other operations
+ */
+public class Workloads {
+    private static final double[][] INPUTS = new double[Workload.SAMPLES][Workload.INPUTS];
+    private static final int[][] OUTPUTS = new int[Workload.SAMPLES][1];
+
+    static {
+        Random random = new Random(1);
+        for (int i = 0; i < Workload.SAMPLES; ++i) {
+            for (int j = 0; j < Workload.INPUTS; ++j) {
+                INPUTS[i][j] = random.nextGaussian();
+            }
+            OUTPUTS[i][0] = random.nextInt(2);
+        }
+    }
+
+    /**
+     * @see Workload#create(String, int, int)
+     */
+    public static Workload create(String name, int hiddenLayers, int width) throws IOException {
+        switch (name) {
+            case Workload.CLASSIFY:
+            case Workload.CLASSIFY_FAST:
+                return classify(new Network(Workload.INPUTS, 1, hiddenLayers, width, 1L), name.equals(Workload.CLASSIFY_FAST));
+            case Workload.LEARN:
+                return learn(new Network(Workload.INPUTS, 1, hiddenLayers, width, 1L));
+            case Workload.EPOCH:
+                return epoch(new Network(Workload.INPUTS, 1, hiddenLayers, width, 1L));
+            case Workload.SIGMOID_EXACT:
+                return activate(new SigmoidalNeuron());
+            case Workload.SIGMOID_FAST:
+                return activate(new FastSigmoidalNeuron());
+            case Workload.PARSE:
+                return parse();
+            default:
+                throw new IllegalArgumentException("Unknown workload: " + name);
+        }
+    }
+
+    /**
+     * @return operation classifying all samples one by one
+     */
+    private static Workload classify(Network network, boolean fastActivation) {
+        network.setFastActivation(fastActivation);
+        return () -> {
+            double sum = 0.0;
+            for (double[] input : INPUTS) {
+                sum += network.classify(input)[0];
+            }
+            return sum;
+        };
+    }
+
+    /**
+     * @return operation learning all samples one by one
+     */
+    private static Workload learn(Network network) {
+        return () -> {
+            for (int i = 0; i < Workload.SAMPLES; ++i) {
+                network.learn(INPUTS[i], OUTPUTS[i]);
+                network.validateLearning();
+            }
+            return network.getLayers()[0].getWeights()[0];
+        };
+    }
+
+    /**
+     * @return operation running a whole training session over all samples
+     */
+    private static Workload epoch(Network network) throws IOException {
+        InputParser inputParser = new InputParser(createDataset());
+        NetworkController controller = new NetworkController(network);
+        return () -> {
+            controller.teachUsingEpochs(Workload.SAMPLES, 1, inputParser);
+            return network.getLayers()[0].getWeights()[0];
+        };
+    }
+
+    /**
+     * @return operation activating all parameters of all samples at once
+     */
+    private static Workload activate(Neuron neuron) {
+        double[] signals = new double[Workload.SAMPLES * Workload.INPUTS];
+        for (int i = 0; i < signals.length; ++i) {
+            signals[i] = INPUTS[i / Workload.INPUTS][i % Workload.INPUTS];
+        }
+        double[] outputs = new double[signals.length];
+        return () -> {
+            neuron.activate(signals, outputs, 0, signals.length);
+            return outputs[0];
+        };
+    }
+
+    /**
+     * @return operation parsing the whole generated CSV file, which is deleted when the operation is closed
+     */
+    private static Workload parse() throws IOException {
+        Path file = Files.createTempFile("benchmark", ".csv");
+        Random random = new Random(2);
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < Workload.PARSED_ROWS; ++i) {
+                for (int j = 0; j < Workload.INPUTS; ++j) {
+                    writer.write(String.format(Locale.ROOT, "%.13f;", random.nextGaussian()));
+                }
+                writer.write(random.nextInt(2) + "\n");
+            }
+        }
+        InputParser inputParser = new InputParser(file.toString(), ';', false);
+        return new Workload() {
+            @Override
+            public double run() {
+                double sum = 0.0;
+                inputParser.begin();
+                while (inputParser.nextLine()) {
+                    sum += inputParser.getParameters()[0];
+                }
+                return sum;
+            }
+
+            @Override
+            public void close() throws IOException {
+                inputParser.close();
+                Files.delete(file);
+            }
+        };
+    }
+
+    /**
+     * @return data set of all samples
+     */
+    private static Dataset createDataset() throws IOException {
+        Path file = Files.createTempFile("benchmark", ".csv");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+                for (int i = 0; i < Workload.SAMPLES; ++i) {
+                    for (double value : INPUTS[i]) {
+                        writer.write(value + ";");
+                    }
+                    writer.write(OUTPUTS[i][0] + "\n");
+                }
+            }
+            try (InputParser inputParser = new InputParser(file.toString(), ';', false)) {
+                return Dataset.fromParser(inputParser);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  speed of exact and approximated sigmoidal activation function, per activated value
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ActivationBenchmark {
+    private Workload exact;
+    private Workload fast;
+
+    @Setup
+    public void setUp() {
+        exact = Workload.create(Workload.SIGMOID_EXACT, 0, 0);
+        fast = Workload.create(Workload.SIGMOID_FAST, 0, 0);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.SAMPLES * Workload.INPUTS)
+    public double sigmoidExact() {
+        return exact.run();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.SAMPLES * Workload.INPUTS)
+    public double sigmoidFast() {
+        return fast.run();
+    }
+}
@@ -0,0 +1,80 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  classification latency, training throughput and time of a whole training session
+ *  for networks of different depth and width
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class NetworkBenchmark {
+    @Param({"1", "2", "4"})
+    private int layers;
+
+    @Param({"10", "40", "100"})
+    private int width;
+
+    private Workload classify;
+    private Workload classifyFast;
+    private Workload learn;
+    private Workload epoch;
+
+    @Setup
+    public void setUp() {
+        classify = Workload.create(Workload.CLASSIFY, layers, width);
+        classifyFast = Workload.create(Workload.CLASSIFY_FAST, layers, width);
+        learn = Workload.create(Workload.LEARN, layers, width);
+        epoch = Workload.create(Workload.EPOCH, layers, width);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        classify.close();
+        classifyFast.close();
+        learn.close();
+        epoch.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.SAMPLES)
+    public double classify() {
+        return classify.run();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.SAMPLES)
+    public double classifyFast() {
+        return classifyFast.run();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.SAMPLES)
+    public double learn() {
+        return learn.run();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public double epoch() {
+        return epoch.run();
+    }
+}
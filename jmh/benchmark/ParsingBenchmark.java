@@ -0,0 +1,45 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  speed of parsing CSV file, per row
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ParsingBenchmark {
+    private Workload parse;
+
+    @Setup
+    public void setUp() {
+        parse = Workload.create(Workload.PARSE, 0, 0);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        parse.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.PARSED_ROWS)
+    public double parse() {
+        return parse.run();
+    }
+}
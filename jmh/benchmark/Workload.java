@@ -0,0 +1,58 @@
+package benchmark;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ *  single measured operation prepared outside of the measurement. JMH does not accept benchmarks in the default
+ *  package, where all network classes are, so operations are built by Workloads class in the default package
+ *  and benchmarks of this package reach them only through this interface
+ */
+public interface Workload extends AutoCloseable {
+    String CLASSIFY = "classify";
+    String CLASSIFY_FAST = "classify-fast";
+    String LEARN = "learn";
+    String EPOCH = "epoch";
+    String SIGMOID_EXACT = "sigmoid-exact";
+    String SIGMOID_FAST = "sigmoid-fast";
+    String PARSE = "parse";
+
+    // number of inputs of benchmarked networks
+    int INPUTS = 29;
+
+    // number of samples classified or learned by a single operation
+    int SAMPLES = 2000;
+
+    // number of rows of parsed file
+    int PARSED_ROWS = 100000;
+
+    /**
+     * performs the operation once
+     * @return value depending on the result, consumed by JMH so that JIT cannot remove the operation
+     */
+    double run();
+
+    /**
+     * releases resources of the operation
+     */
+    @Override
+    default void close() throws Exception {
+    }
+
+    /**
+     * prepares operation of given name
+     * @param name name of the operation, one of constants above
+     * @param hiddenLayers number of hidden layers of the network
+     * @param width number of neurons per hidden layer
+     * @return operation ready to run
+     */
+    static Workload create(String name, int hiddenLayers, int width) {
+        try {
+            return (Workload) Class.forName("Workloads").getMethod("create", String.class, int.class, int.class)
+                    .invoke(null, name, hiddenLayers, width);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Cannot prepare " + name, e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot prepare " + name, e);
+        }
+    }
+}
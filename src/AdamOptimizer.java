@@ -0,0 +1,80 @@
+/**
+ *  Adam optimizer: every weight moves in the direction of the running mean of its changes, divided by the root
+ *  of the running mean of their squares, so each weight gets its own step size. State of a weight is
+ *  the first moment followed by the second moment of its changes, kept in two blocks of the state array
+ */
+public class AdamOptimizer implements Optimizer {
+    public static final double DEFAULT_STEP_SIZE = 0.001;
+    public static final double DEFAULT_BETA1 = 0.9;
+    public static final double DEFAULT_BETA2 = 0.999;
+    public static final double DEFAULT_EPSILON = 1e-8;
+
+    // largest move of a weight in a single correction
+    private final double stepSize;
+
+    // decay rates of the first and the second moment
+    private final double beta1;
+    private final double beta2;
+
+    // added to the root of the second moment to avoid division by zero
+    private final double epsilon;
+
+    public AdamOptimizer() {
+        this(DEFAULT_STEP_SIZE, DEFAULT_BETA1, DEFAULT_BETA2, DEFAULT_EPSILON);
+    }
+
+    /**
+     * @param stepSize largest move of a weight in a single correction
+     * @param beta1 decay rate of the first moment
+     * @param beta2 decay rate of the second moment
+     * @param epsilon value added to the root of the second moment
+     */
+    public AdamOptimizer(double stepSize, double beta1, double beta2, double epsilon) {
+        this.stepSize = stepSize;
+        this.beta1 = beta1;
+        this.beta2 = beta2;
+        this.epsilon = epsilon;
+    }
+
+    public double getStepSize() {
+        return stepSize;
+    }
+
+    public double getBeta1() {
+        return beta1;
+    }
+
+    public double getBeta2() {
+        return beta2;
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    @Override
+    public int getStateSize() {
+        return 2;
+    }
+
+    /**
+     * @see Optimizer#correct(double[], double[], double[], int, int, long)
+     */
+    @Override
+    public void correct(double[] weights, double[] state, double[] changes, int stride, int columns, long step) {
+        // bias correction of both moments is folded into the step size
+        double rate = stepSize * Math.sqrt(1.0 - Math.pow(beta2, step)) / (1.0 - Math.pow(beta1, step));
+        int second = weights.length;
+        for (int row = 0; row < weights.length; row += stride) {
+            for (int i = row; i < row + columns; ++i) {
+                double change = changes[i];
+                double first = beta1 * state[i] + (1.0 - beta1) * change;
+                double squared = beta2 * state[second + i] + (1.0 - beta2) * change * change;
+                state[i] = first;
+                state[second + i] = squared;
+                weights[i] += rate * first / (Math.sqrt(squared) + epsilon);
+                changes[i] = 0.0;
+            }
+        }
+    }
+}
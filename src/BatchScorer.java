@@ -0,0 +1,207 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ *  class scoring transactions from arbitrarily large files. Reading, scoring and writing run concurrently:
+ *  parsed lines are grouped into blocks, blocks are scored by several threads and written in input order.
+ *  Number of blocks is limited, so memory usage does not depend on file size
+ */
+public class BatchScorer {
+    private static final int BLOCK_SIZE = 4096;
+
+    // marks end of input in queues
+    private static final Block END = new Block(0);
+
+    private InferenceModel model;
+    private int threads;
+
+    /**
+     * Usage: BatchScorer model input output [threads]
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 3) {
+            System.out.println("Uzycie: BatchScorer model wejscie wyjscie [watki]");
+            return;
+        }
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        BatchScorer scorer = new BatchScorer(new InferenceModel(Network.load(Paths.get(args[0]))), threads);
+        long start = System.nanoTime();
+        long rows;
+        // input is always streamed from the channel, so that memory usage stays independent of file size
+        try (InputParser inputParser = new InputParser(FileChannel.open(Paths.get(args[1]), StandardOpenOption.READ), ';', true)) {
+            inputParser.setLabelled(false);
+            rows = scorer.score(inputParser, Paths.get(args[2]));
+        } catch (IllegalArgumentException e) {
+            System.out.println("Niepoprawne dane: " + e.getMessage());
+            return;
+        }
+        System.out.println("Ocenione transakcje: " + rows + ", czas: " + (System.nanoTime() - start) / 1000000 + " ms");
+    }
+
+    /**
+     * @param model model used to score transactions
+     * @param threads number of scoring threads
+     */
+    public BatchScorer(InferenceModel model, int threads) {
+        this.model = model;
+        this.threads = threads;
+    }
+
+    /**
+     * scores all remaining lines of given parser and writes one score per line to output file
+     * @param inputParser source of transactions
+     * @param outputPath path of output file
+     * @return number of scored transactions
+     * @throws IllegalArgumentException if a line does not have exactly as many parameters as the model has inputs
+     */
+    public long score(InputParser inputParser, Path outputPath) throws IOException, InterruptedException {
+        int blocks = 2 * threads + 2;
+        BlockingQueue<Block> free = new ArrayBlockingQueue<>(blocks);
+        BlockingQueue<Block> unscored = new ArrayBlockingQueue<>(blocks + threads);
+        BlockingQueue<Block> ordered = new ArrayBlockingQueue<>(blocks + 1);
+        for (int i = 0; i < blocks; ++i) {
+            free.add(new Block(model.getNumberOfInputs()));
+        }
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread[] scorers = new Thread[threads];
+        for (int i = 0; i < threads; ++i) {
+            scorers[i] = new Thread(() -> scoreBlocks(unscored, failure), "batch-scorer-" + i);
+            scorers[i].start();
+        }
+        long rows = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(outputPath)) {
+            Thread writerThread = new Thread(() -> writeBlocks(ordered, free, writer, failure), "batch-writer");
+            writerThread.start();
+            try {
+                rows = readBlocks(inputParser, free, unscored, ordered, failure);
+            } finally {
+                for (int i = 0; i < threads; ++i) {
+                    unscored.put(END);
+                }
+                ordered.put(END);
+                for (Thread scorer : scorers) {
+                    scorer.join();
+                }
+                writerThread.join();
+            }
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("Scoring failed", failure.get());
+        }
+        return rows;
+    }
+
+    /**
+     * producer stage - fills free blocks with parsed lines
+     */
+    private long readBlocks(InputParser inputParser, BlockingQueue<Block> free, BlockingQueue<Block> unscored,
+                            BlockingQueue<Block> ordered, AtomicReference<Throwable> failure) throws InterruptedException {
+        int inputs = model.getNumberOfInputs();
+        long rows = 0;
+        boolean more = true;
+        while (more && failure.get() == null) {
+            Block block = free.poll(100, TimeUnit.MILLISECONDS);
+            if (block == null) {
+                continue;
+            }
+            block.rows = 0;
+            while (block.rows < BLOCK_SIZE && (more = inputParser.nextLine())) {
+                if (inputParser.getParameters().length != inputs) {
+                    // e.g. labelled file, whose last column would otherwise be dropped silently
+                    throw new IllegalArgumentException("Transaction " + (rows + block.rows + 1) + " has "
+                            + inputParser.getParameters().length + " parameters, expected " + inputs);
+                }
+                System.arraycopy(inputParser.getParameters(), 0, block.parameters, block.rows * inputs, inputs);
+                ++block.rows;
+            }
+            rows += block.rows;
+            // block goes to writer queue first, so that order of blocks is kept
+            ordered.put(block);
+            unscored.put(block);
+        }
+        return rows;
+    }
+
+    /**
+     * scoring stage - calculates scores of blocks taken from the queue
+     */
+    private void scoreBlocks(BlockingQueue<Block> unscored, AtomicReference<Throwable> failure) {
+        double[] scratch = model.createScratch();
+        double[] input = new double[model.getNumberOfInputs()];
+        double[] output = new double[model.getNumberOfOutputs()];
+        try {
+            Block block;
+            while ((block = unscored.take()) != END) {
+                try {
+                    for (int i = 0; i < block.rows; ++i) {
+                        System.arraycopy(block.parameters, i * input.length, input, 0, input.length);
+                        model.classify(input, output, scratch);
+                        block.scores[i] = output[0];
+                    }
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    block.scored.release();
+                }
+            }
+        } catch (InterruptedException e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    /**
+     * consumer stage - writes scores of blocks in input order and gives blocks back to producer
+     */
+    private void writeBlocks(BlockingQueue<Block> ordered, BlockingQueue<Block> free, Writer writer,
+                             AtomicReference<Throwable> failure) {
+        try {
+            Block block;
+            while ((block = ordered.take()) != END) {
+                block.scored.acquire();
+                try {
+                    if (failure.get() == null) {
+                        for (int i = 0; i < block.rows; ++i) {
+                            writer.write(Double.toString(block.scores[i]));
+                            writer.write('\n');
+                        }
+                    }
+                } catch (IOException e) {
+                    failure.compareAndSet(null, new UncheckedIOException(e));
+                }
+                free.put(block);
+            }
+        } catch (InterruptedException e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    /**
+     * group of consecutive transactions processed together
+     */
+    private static class Block {
+        private double[] parameters;
+        private double[] scores;
+        private int rows;
+
+        // released by scoring thread when scores are ready
+        private Semaphore scored = new Semaphore(0);
+
+        Block(int inputs) {
+            this.parameters = new double[BLOCK_SIZE * inputs];
+            this.scores = new double[BLOCK_SIZE];
+        }
+    }
+}
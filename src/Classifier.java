@@ -0,0 +1,19 @@
+/**
+ *  model able to calculate network's output for given input vector.
+ *  Classifier is not required to be thread-safe; implementations state whether classify() may be called
+ *  by several threads at once. Read-only snapshots such as InferenceModel keep activations in thread-local
+ *  buffers and are safe, while Network calculates them in buffers of its layers and must be used by one thread
+ */
+public interface Classifier {
+
+    int getNumberOfInputs();
+
+    int getNumberOfOutputs();
+
+    /**
+     * calculates output values for given input values
+     * @param inputVector input values that will be processed by the model
+     * @param outputVector vector output values will be written to
+     */
+    void classify(double[] inputVector, double[] outputVector);
+}
@@ -0,0 +1,239 @@
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *  k-fold cross-validation of a network configuration. Data set is loaded once and shared read-only by all folds:
+ *  every fold is a range of row indices, its network is trained on rows outside the range, drawn by its own sampler,
+ *  and evaluated on rows inside it. Folds are trained concurrently, and their results are summarized by mean
+ *  and variance, which tell how much a single training run can be trusted
+ */
+public class CrossValidation {
+    private Dataset dataset;
+    private int folds;
+    private ExecutorService executor;
+
+    // cost of undetected fraud relative to false positive
+    private double weight;
+
+    private long seed;
+
+    /**
+     * Usage: CrossValidation data [folds] [threads] [epochs]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Uzycie: CrossValidation dane [podzbiory] [watki] [epoki]");
+            return;
+        }
+        int folds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int epochs = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+        CrossValidation crossValidation = new CrossValidation(Dataset.open(args[0], ';', true), folds, threads,
+                NetworkController.DEFAULT_WEIGHT, 1L);
+        try {
+            crossValidation.run(new HyperparameterSearch.Configuration(4, 40, Network.DEFAULT_LEARNING_RATE,
+                    Layer.DEFAULT_MOMENTUM, SigmoidalNeuron.DEFAULT_ALPHA, LinearNeuron.DEFAULT_ALPHA), 400, epochs).print();
+        } finally {
+            crossValidation.shutdown();
+        }
+    }
+
+    /**
+     * @param dataset data set shared by all folds
+     * @param folds number of folds
+     * @param threads number of folds trained at once
+     * @param weight cost of undetected fraud relative to false positive
+     * @param seed seed of the first fold's initial weights and sampler, following folds use consecutive seeds
+     */
+    public CrossValidation(Dataset dataset, int folds, int threads, double weight, long seed) {
+        this.dataset = dataset;
+        this.folds = folds;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "cross-validation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.weight = weight;
+        this.seed = seed;
+    }
+
+    /**
+     * trains and evaluates a network of given configuration on every fold
+     * @param configuration topology and learning parameters of networks
+     * @param samplesPerEpoch number of input sets used during training session
+     * @param epochs number of training sessions
+     * @return results of all folds
+     */
+    public Result run(HyperparameterSearch.Configuration configuration, int samplesPerEpoch, int epochs) {
+        int rows = dataset.getNumberOfRows();
+        List<Callable<Fold>> tasks = new ArrayList<>(folds);
+        for (int k = 0; k < folds; ++k) {
+            int first = (int) ((long) rows * k / folds);
+            int last = (int) ((long) rows * (k + 1) / folds);
+            long foldSeed = seed + k;
+            tasks.add(() -> runFold(configuration, first, last, foldSeed, samplesPerEpoch, epochs));
+        }
+        Result result = new Result(folds);
+        try {
+            List<Future<Fold>> futures = executor.invokeAll(tasks);
+            for (int k = 0; k < folds; ++k) {
+                result.folds[k] = futures.get(k).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Cross-validation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Cross-validation failed", e.getCause());
+        }
+        return result;
+    }
+
+    /**
+     * stops training threads
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * trains network on rows outside of [first, last) and evaluates it on rows inside
+     */
+    private Fold runFold(HyperparameterSearch.Configuration configuration, int first, int last, long foldSeed,
+                         int samplesPerEpoch, int epochs) {
+        Network network = configuration.createNetwork(dataset.getNumberOfParameters(), foldSeed);
+        NetworkController controller = new NetworkController(network);
+        controller.setWeight(weight);
+        controller.setSampler(EpochSampler.stratified(dataset, dataset.getNumberOfRows(), first, last, foldSeed));
+        controller.teachUsingEpochs(samplesPerEpoch, epochs, new InputParser(dataset));
+        InferenceModel model = new InferenceModel(network);
+        double[] input = new double[dataset.getNumberOfParameters()];
+        double[] output = new double[model.getNumberOfOutputs()];
+        Fold fold = new Fold();
+        for (int row = first; row < last; ++row) {
+            dataset.getParameters(row, input);
+            model.classify(input, output);
+            int classification = controller.interpretOutput(output);
+            if (dataset.getOutput(row) == 0) {
+                ++fold.legitimateTransactions;
+                fold.falsePositives += classification;
+            } else {
+                ++fold.frauds;
+                fold.undetectedFrauds += 1 - classification;
+            }
+        }
+        return fold;
+    }
+
+    /**
+     * numbers of checked transactions and wrong answers of a single fold
+     */
+    private static class Fold {
+        private int legitimateTransactions;
+        private int frauds;
+        private int falsePositives;
+        private int undetectedFrauds;
+    }
+
+    /**
+     * results of all folds
+     */
+    public class Result {
+        private Fold[] folds;
+
+        Result(int count) {
+            this.folds = new Fold[count];
+        }
+
+        public int getFalsePositives(int fold) {
+            return folds[fold].falsePositives;
+        }
+
+        public int getUndetectedFrauds(int fold) {
+            return folds[fold].undetectedFrauds;
+        }
+
+        public double getMeanFalsePositives() {
+            return mean(getFalsePositiveCounts());
+        }
+
+        /**
+         * @return sample variance of number of false positives across folds
+         */
+        public double getFalsePositivesVariance() {
+            return variance(getFalsePositiveCounts());
+        }
+
+        public double getMeanUndetectedFrauds() {
+            return mean(getUndetectedFraudCounts());
+        }
+
+        /**
+         * @return sample variance of number of undetected frauds across folds
+         */
+        public double getUndetectedFraudsVariance() {
+            return variance(getUndetectedFraudCounts());
+        }
+
+        /**
+         * displays results of every fold together with their means and standard deviations
+         */
+        public void print() {
+            DecimalFormat df = new DecimalFormat("#.##");
+            System.out.println("Podzbior;poprawne;fraudy;false positives;undetected;blad wazony");
+            for (int k = 0; k < folds.length; ++k) {
+                Fold fold = folds[k];
+                double errorRate = (fold.falsePositives + fold.undetectedFrauds * weight)
+                        / (fold.legitimateTransactions + fold.frauds);
+                System.out.println((k + 1) + ";" + fold.legitimateTransactions + ";" + fold.frauds + ";"
+                        + fold.falsePositives + ";" + fold.undetectedFrauds + ";" + df.format(errorRate));
+            }
+            System.out.println("Liczba false positives: " + df.format(getMeanFalsePositives())
+                    + " +/- " + df.format(Math.sqrt(getFalsePositivesVariance())));
+            System.out.println("Liczba undetected: " + df.format(getMeanUndetectedFrauds())
+                    + " +/- " + df.format(Math.sqrt(getUndetectedFraudsVariance())));
+        }
+
+        private double[] getFalsePositiveCounts() {
+            double[] counts = new double[folds.length];
+            for (int k = 0; k < folds.length; ++k) {
+                counts[k] = folds[k].falsePositives;
+            }
+            return counts;
+        }
+
+        private double[] getUndetectedFraudCounts() {
+            double[] counts = new double[folds.length];
+            for (int k = 0; k < folds.length; ++k) {
+                counts[k] = folds[k].undetectedFrauds;
+            }
+            return counts;
+        }
+    }
+
+    private static double mean(double[] values) {
+        double sum = 0.0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    private static double variance(double[] values) {
+        if (values.length < 2) {
+            return 0.0;
+        }
+        double mean = mean(values);
+        double sum = 0.0;
+        for (double value : values) {
+            sum += (value - mean) * (value - mean);
+        }
+        return sum / (values.length - 1);
+    }
+}
@@ -0,0 +1,223 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ *  class holding whole data set in memory as primitive columns - one array of values per parameter
+ *  and one array of expected outputs. Data set parsed from CSV can be stored in a binary file,
+ *  which later runs read through memory mapping instead of parsing text again. Columns are copied from the mapping
+ *  to heap arrays, because they are handed out as double[] and normalized in place
+ */
+public class Dataset {
+    // file format identifier ("FDDS") and its version
+    private static final int MAGIC = 0x46444453;
+    private static final int VERSION = 2;
+
+    // size of header: magic, version, separator and header flag of the CSV file, number of rows and number of parameters
+    private static final int HEADER_SIZE = 6 * Integer.BYTES;
+
+    private int numberOfRows;
+    private double[][] columns;
+    private byte[] outputs;
+
+    private Dataset(int numberOfRows, double[][] columns, byte[] outputs) {
+        this.numberOfRows = numberOfRows;
+        this.columns = columns;
+        this.outputs = outputs;
+    }
+
+    /**
+     * reads data set from binary cache if it is newer than CSV file and was parsed with the same settings,
+     * otherwise parses CSV file and creates the cache again
+     * @param path path of CSV file
+     * @param separator character separating fields of a line
+     * @param skipHeader tells whether first line of CSV file should be skipped
+     * @return data set
+     */
+    public static Dataset open(String path, char separator, boolean skipHeader) throws IOException {
+        Path cache = getCachePath(path);
+        if (isCacheValid(path, separator, skipHeader)) {
+            return load(cache);
+        }
+        Dataset dataset;
+        try (InputParser inputParser = new InputParser(path, separator, skipHeader)) {
+            dataset = fromParser(inputParser);
+        }
+        dataset.save(cache, separator, skipHeader);
+        return dataset;
+    }
+
+    /**
+     * @param path path of CSV file
+     * @return path of binary cache of given CSV file
+     */
+    public static Path getCachePath(String path) {
+        return Paths.get(path + ".bin");
+    }
+
+    /**
+     * @param path path of CSV file
+     * @param separator character separating fields of a line
+     * @param skipHeader tells whether first line of CSV file should be skipped
+     * @return true if binary cache of given file exists, is newer than the file itself
+     * and was created from it with the same separator and header flag
+     */
+    public static boolean isCacheValid(String path, char separator, boolean skipHeader) throws IOException {
+        Path cache = getCachePath(path);
+        if (!Files.exists(cache) || Files.size(cache) < HEADER_SIZE
+                || Files.getLastModifiedTime(cache).compareTo(Files.getLastModifiedTime(Paths.get(path))) <= 0) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(cache, StandardOpenOption.READ)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            return header.getInt() == MAGIC && header.getInt() == VERSION && header.getInt() == separator
+                    && header.getInt() == (skipHeader ? 1 : 0);
+        }
+    }
+
+    /**
+     * reads all remaining lines of given parser
+     * @param inputParser source of data
+     * @return data set
+     */
+    public static Dataset fromParser(InputParser inputParser) {
+        int capacity = 1024;
+        double[][] columns = null;
+        byte[] outputs = new byte[capacity];
+        int rows = 0;
+        while (inputParser.nextLine()) {
+            double[] parameters = inputParser.getParameters();
+            if (columns == null) {
+                columns = new double[parameters.length][capacity];
+            }
+            if (rows == capacity) {
+                capacity *= 2;
+                for (int c = 0; c < columns.length; ++c) {
+                    columns[c] = Arrays.copyOf(columns[c], capacity);
+                }
+                outputs = Arrays.copyOf(outputs, capacity);
+            }
+            for (int c = 0; c < columns.length; ++c) {
+                columns[c][rows] = parameters[c];
+            }
+            outputs[rows] = (byte) inputParser.getOutput()[0];
+            ++rows;
+        }
+        if (columns == null) {
+            columns = new double[0][];
+        }
+        for (int c = 0; c < columns.length; ++c) {
+            columns[c] = Arrays.copyOf(columns[c], rows);
+        }
+        return new Dataset(rows, columns, Arrays.copyOf(outputs, rows));
+    }
+
+    /**
+     * reads data set from binary file
+     * @param path path of the file created by save()
+     * @return data set
+     */
+    public static Dataset load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Truncated data set file: " + path);
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Unsupported data set file: " + path);
+            }
+            // separator and header flag only validate the cache
+            header.position(header.position() + 2 * Integer.BYTES);
+            int rows = header.getInt();
+            double[][] columns = new double[header.getInt()][];
+            if (channel.size() < HEADER_SIZE + (long) rows * (columns.length * Double.BYTES + 1)) {
+                throw new IOException("Truncated data set file: " + path);
+            }
+            long offset = HEADER_SIZE;
+            for (int c = 0; c < columns.length; ++c) {
+                columns[c] = new double[rows];
+                MappedByteBuffer column = channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) rows * Double.BYTES);
+                column.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(columns[c]);
+                offset += (long) rows * Double.BYTES;
+            }
+            byte[] outputs = new byte[rows];
+            channel.map(FileChannel.MapMode.READ_ONLY, offset, rows).get(outputs);
+            return new Dataset(rows, columns, outputs);
+        }
+    }
+
+    /**
+     * stores data set in binary file
+     * @param path path of the file
+     * @param separator separator of the CSV file the data set was parsed from
+     * @param skipHeader header flag of the CSV file the data set was parsed from
+     */
+    public void save(Path path, char separator, boolean skipHeader) throws IOException {
+        Path temporary = Paths.get(path + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(separator).putInt(skipHeader ? 1 : 0)
+                    .putInt(numberOfRows).putInt(columns.length);
+            // every mapping is written to disk before the file replaces the old cache
+            header.force();
+            long offset = HEADER_SIZE;
+            for (double[] values : columns) {
+                MappedByteBuffer column = channel.map(FileChannel.MapMode.READ_WRITE, offset, (long) numberOfRows * Double.BYTES);
+                column.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().put(values);
+                column.force();
+                offset += (long) numberOfRows * Double.BYTES;
+            }
+            MappedByteBuffer outputBuffer = channel.map(FileChannel.MapMode.READ_WRITE, offset, numberOfRows);
+            outputBuffer.put(outputs);
+            outputBuffer.force();
+        }
+        // replace old cache at once, so that other processes never see a partially written file
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public int getNumberOfRows() {
+        return numberOfRows;
+    }
+
+    public int getNumberOfParameters() {
+        return columns.length;
+    }
+
+    /**
+     * @param column number of parameter
+     * @return values of the parameter in all rows
+     */
+    public double[] getColumn(int column) {
+        return columns[column];
+    }
+
+    /**
+     * copies parameters of given row to given vector
+     * @param row number of row
+     * @param parameters vector of length getNumberOfParameters()
+     */
+    public void getParameters(int row, double[] parameters) {
+        for (int c = 0; c < columns.length; ++c) {
+            parameters[c] = columns[c][row];
+        }
+    }
+
+    /**
+     * @param row number of row
+     * @return expected output of given row
+     */
+    public int getOutput(int row) {
+        return outputs[row];
+    }
+}
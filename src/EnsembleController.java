@@ -0,0 +1,248 @@
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *  class training several networks at once and combining their outputs. Members are trained in parallel,
+ *  each by its own NetworkController on its own view of a shared data set. Blocks of transactions are parsed once
+ *  and scored by all members in parallel, so scoring a block takes about as long as scoring it with one network
+ */
+public class EnsembleController implements Classifier {
+    private static final int BLOCK_SIZE = 4096;
+
+    // output value from which member's answer is counted as fraud
+    private static final double FRAUD_THRESHOLD = NetworkController.DEFAULT_THRESHOLD;
+
+    /**
+     * way of combining outputs of members
+     */
+    public enum Combination {
+        // mean of members' outputs
+        AVERAGE,
+        // share of members classifying transaction as fraud
+        VOTE
+    }
+
+    private Network[] members;
+
+    // snapshots of members used for scoring, refreshed after training
+    private InferenceModel[] models;
+
+    private Combination combination;
+
+    private ExecutorService executor;
+
+    // scores given by each member to the block of transactions scored by the calling thread
+    private final ThreadLocal<double[][]> memberScores;
+
+    // output of a single member for a transaction classified by classify()
+    private final ThreadLocal<double[]> memberOutput;
+
+    /**
+     * @param members networks forming the ensemble, all with the same number of inputs and outputs
+     * @param combination way of combining outputs of members
+     * @param threads number of threads used for training and scoring
+     */
+    public EnsembleController(Network[] members, Combination combination, int threads) {
+        this.members = members;
+        this.combination = combination;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "ensemble");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.memberScores = ThreadLocal.withInitial(() -> new double[members.length][BLOCK_SIZE]);
+        int outputs = members[0].getNumberOfOutputs();
+        this.memberOutput = ThreadLocal.withInitial(() -> new double[outputs]);
+        updateModels();
+    }
+
+    /**
+     * creates networks of the same topology initialized with consecutive seeds
+     * @param size number of networks
+     * @param seed seed of the first network
+     * @return networks
+     * @see Network#Network(int, int, int, int, long)
+     */
+    public static Network[] createMembers(int size, int inputs, int outputs, int hiddenLayers, int neuronsPerLayer, long seed) {
+        Network[] members = new Network[size];
+        for (int i = 0; i < size; ++i) {
+            members[i] = new Network(inputs, outputs, hiddenLayers, neuronsPerLayer, seed + i);
+        }
+        return members;
+    }
+
+    public Network[] getMembers() {
+        return members;
+    }
+
+    @Override
+    public int getNumberOfInputs() {
+        return members[0].getNumberOfInputs();
+    }
+
+    @Override
+    public int getNumberOfOutputs() {
+        return 1;
+    }
+
+    /**
+     * trains all members in parallel, each for a specified number of training sessions
+     * @see NetworkController#teachUsingEpochs(int, int, InputParser)
+     */
+    public void teachUsingEpochs(int samplesPerEpoch, int epochs, InputParser inputParser) {
+        Dataset dataset = inputParser.getDataset();
+        if (dataset == null) {
+            inputParser.begin();
+            dataset = Dataset.fromParser(inputParser);
+        }
+        List<Callable<Void>> tasks = new ArrayList<>(members.length);
+        for (Network member : members) {
+            // every member reads the same columns through its own parser
+            InputParser memberParser = new InputParser(dataset);
+            tasks.add(() -> {
+                new NetworkController(member).teachUsingEpochs(samplesPerEpoch, epochs, memberParser);
+                return null;
+            });
+        }
+        invokeAll(tasks, "Training");
+        updateModels();
+    }
+
+    /**
+     * calculates combined output of all members for a single transaction using thread-local buffer
+     * @see Classifier#classify(double[], double[])
+     */
+    @Override
+    public void classify(double[] inputVector, double[] outputVector) {
+        double[] output = memberOutput.get();
+        double sum = 0.0;
+        for (InferenceModel model : models) {
+            model.classify(inputVector, output);
+            sum += combine(output[0]);
+        }
+        outputVector[0] = sum / models.length;
+    }
+
+    /**
+     * calculates combined outputs of a block of transactions; every member scores the whole block in its own thread.
+     * Several threads may score their blocks at once, each one using its own thread-local buffers
+     * @param inputs parameters of transactions stored row-major
+     * @param rows number of transactions
+     * @param scores array combined outputs are written to
+     */
+    public void score(double[] inputs, int rows, double[] scores) {
+        double[][] memberScores = this.memberScores.get();
+        if (memberScores[0].length < rows) {
+            memberScores = new double[members.length][rows];
+            this.memberScores.set(memberScores);
+        }
+        List<Callable<Void>> tasks = new ArrayList<>(members.length);
+        for (int m = 0; m < members.length; ++m) {
+            InferenceModel model = models[m];
+            double[] memberScore = memberScores[m];
+            tasks.add(() -> {
+                double[] input = new double[model.getNumberOfInputs()];
+                double[] output = new double[model.getNumberOfOutputs()];
+                for (int i = 0; i < rows; ++i) {
+                    System.arraycopy(inputs, i * input.length, input, 0, input.length);
+                    model.classify(input, output);
+                    memberScore[i] = combine(output[0]);
+                }
+                return null;
+            });
+        }
+        invokeAll(tasks, "Scoring");
+        for (int i = 0; i < rows; ++i) {
+            double sum = 0.0;
+            for (double[] memberScore : memberScores) {
+                sum += memberScore[i];
+            }
+            scores[i] = sum / members.length;
+        }
+    }
+
+    /**
+     * method displays fraud finding results of the ensemble in the same form as NetworkController.test()
+     * @param inputParser input data source
+     */
+    public void test(InputParser inputParser) {
+        int inputs = getNumberOfInputs();
+        double[] blockInputs = new double[BLOCK_SIZE * inputs];
+        double[] scores = new double[BLOCK_SIZE];
+        int falsePositives = 0;
+        int undetectedFrauds = 0;
+        int legitimateTransactions = 0;
+        int frauds = 0;
+        int[] expected = new int[BLOCK_SIZE];
+        inputParser.begin();
+        boolean more = true;
+        while (more) {
+            int rows = 0;
+            while (rows < BLOCK_SIZE && (more = inputParser.nextLine())) {
+                System.arraycopy(inputParser.getParameters(), 0, blockInputs, rows * inputs, inputs);
+                expected[rows] = inputParser.getOutput()[0];
+                ++rows;
+            }
+            score(blockInputs, rows, scores);
+            for (int i = 0; i < rows; ++i) {
+                int classification = scores[i] >= FRAUD_THRESHOLD ? 1 : 0;
+                if (expected[i] == 0) {
+                    ++legitimateTransactions;
+                    falsePositives += classification;
+                } else {
+                    ++frauds;
+                    undetectedFrauds += 1 - classification;
+                }
+            }
+        }
+        DecimalFormat df = new DecimalFormat("#.##");
+        System.out.println("Liczba false positives: " + falsePositives);
+        System.out.println("Liczba undetected: " + undetectedFrauds);
+        System.out.println("Trafnosc dla poprawnych transakcji: " + df.format(100.0 * (1 - falsePositives / (double) legitimateTransactions)) + "%");
+        System.out.println("Trafnosc dla fraudow: " + df.format(100.0 * (1 - undetectedFrauds / (double) frauds)) + "%");
+    }
+
+    /**
+     * stops training and scoring threads
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * @param output member's output
+     * @return member's contribution to combined output
+     */
+    private double combine(double output) {
+        if (combination == Combination.VOTE) {
+            return output >= FRAUD_THRESHOLD ? 1.0 : 0.0;
+        }
+        return output;
+    }
+
+    private void updateModels() {
+        models = new InferenceModel[members.length];
+        for (int i = 0; i < members.length; ++i) {
+            models[i] = new InferenceModel(members[i]);
+        }
+    }
+
+    private void invokeAll(List<Callable<Void>> tasks, String operation) {
+        try {
+            for (Future<Void> result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(operation + " interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(operation + " failed", e.getCause());
+        }
+    }
+}
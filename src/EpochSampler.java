@@ -0,0 +1,161 @@
+import java.util.Random;
+
+/**
+ *  class choosing rows of a data set used by consecutive training sessions. Rows are drawn from random permutations
+ *  of row indices, shuffled lazily - every draw performs a single step of Fisher-Yates shuffle, so an epoch costs
+ *  as many steps as it uses samples and data is never copied. Legitimate transactions and frauds can be drawn
+ *  from separate permutations, which keeps the share of frauds in every part of an epoch fixed
+ */
+public class EpochSampler {
+    private Dataset dataset;
+
+    // share of frauds among drawn samples, negative if classes are not separated
+    private double fraudShare;
+
+    // permutations of indices of rows of each class, or of all rows if classes are not separated
+    private int[] legitimate;
+    private int[] frauds;
+
+    // number of already drawn elements of each permutation
+    private int legitimatePosition;
+    private int fraudPosition;
+
+    // numbers of samples drawn during current epoch
+    private int drawnSamples;
+    private int drawnFrauds;
+
+    private Random random;
+
+    /**
+     * @param dataset sampled data set
+     * @param rows number of rows from the beginning of data set that can be sampled
+     * @param excludedFirst index of the first row of a range that is never sampled
+     * @param excludedLast index after the last row of a range that is never sampled
+     * @param fraudShare share of frauds among samples, negative if classes should not be separated
+     * @param seed seed of random generator
+     */
+    private EpochSampler(Dataset dataset, int rows, int excludedFirst, int excludedLast, double fraudShare, long seed) {
+        this.dataset = dataset;
+        this.fraudShare = fraudShare;
+        this.random = new Random(seed);
+        int excluded = Math.max(0, Math.min(rows, excludedLast) - excludedFirst);
+        int sampled = rows - excluded;
+        int fraudCount = countFrauds(dataset, rows, excludedFirst, excludedLast);
+        if (fraudShare < 0.0 || fraudCount == 0 || fraudCount == sampled) {
+            this.fraudShare = -1.0;
+            this.legitimate = new int[sampled];
+            this.frauds = new int[0];
+        } else {
+            this.legitimate = new int[sampled - fraudCount];
+            this.frauds = new int[fraudCount];
+        }
+        for (int row = 0, l = 0, f = 0; row < rows; ++row) {
+            if (row >= excludedFirst && row < excludedLast) {
+                continue;
+            }
+            if (this.fraudShare >= 0.0 && dataset.getOutput(row) != 0) {
+                frauds[f++] = row;
+            } else {
+                legitimate[l++] = row;
+            }
+        }
+    }
+
+    /**
+     * creates sampler drawing rows in random order, regardless of their class
+     * @param dataset sampled data set
+     * @param rows number of rows from the beginning of data set that can be sampled
+     * @param seed seed of random generator
+     * @return sampler
+     */
+    public static EpochSampler shuffled(Dataset dataset, int rows, long seed) {
+        return new EpochSampler(dataset, rows, rows, rows, -1.0, seed);
+    }
+
+    /**
+     * creates sampler keeping share of frauds in every part of an epoch equal to their share in the data set
+     * @see EpochSampler#shuffled(Dataset, int, long)
+     */
+    public static EpochSampler stratified(Dataset dataset, int rows, long seed) {
+        return stratified(dataset, rows, rows, rows, seed);
+    }
+
+    /**
+     * creates stratified sampler skipping given range of rows, e.g. the fold held out by cross-validation
+     * @param excludedFirst index of the first row that is never sampled
+     * @param excludedLast index after the last row that is never sampled
+     * @see EpochSampler#stratified(Dataset, int, long)
+     */
+    public static EpochSampler stratified(Dataset dataset, int rows, int excludedFirst, int excludedLast, long seed) {
+        int sampled = rows - Math.max(0, Math.min(rows, excludedLast) - excludedFirst);
+        double fraudShare = (double) countFrauds(dataset, rows, excludedFirst, excludedLast) / sampled;
+        return new EpochSampler(dataset, rows, excludedFirst, excludedLast, fraudShare, seed);
+    }
+
+    /**
+     * creates sampler drawing frauds more often than they appear in the data set; frauds are repeated
+     * in new random order when all of them have been used
+     * @param fraudShare share of frauds among samples
+     * @see EpochSampler#shuffled(Dataset, int, long)
+     */
+    public static EpochSampler oversampled(Dataset dataset, int rows, double fraudShare, long seed) {
+        return new EpochSampler(dataset, rows, rows, rows, fraudShare, seed);
+    }
+
+    public Dataset getDataset() {
+        return dataset;
+    }
+
+    /**
+     * starts new epoch: following samples are drawn from new permutations
+     */
+    public void beginEpoch() {
+        legitimatePosition = 0;
+        fraudPosition = 0;
+        drawnSamples = 0;
+        drawnFrauds = 0;
+    }
+
+    /**
+     * @return index of the next sampled row
+     */
+    public int next() {
+        ++drawnSamples;
+        // fraud is drawn whenever their number falls behind the requested share
+        if (fraudShare >= 0.0 && drawnFrauds < drawnSamples * fraudShare) {
+            ++drawnFrauds;
+            if (fraudPosition == frauds.length) {
+                fraudPosition = 0;
+            }
+            return draw(frauds, fraudPosition++);
+        }
+        if (legitimatePosition == legitimate.length) {
+            legitimatePosition = 0;
+        }
+        return draw(legitimate, legitimatePosition++);
+    }
+
+    /**
+     * performs a single step of Fisher-Yates shuffle
+     * @param permutation shuffled indices
+     * @param position number of already drawn indices
+     * @return index moved to given position
+     */
+    private int draw(int[] permutation, int position) {
+        int chosen = position + random.nextInt(permutation.length - position);
+        int index = permutation[chosen];
+        permutation[chosen] = permutation[position];
+        permutation[position] = index;
+        return index;
+    }
+
+    private static int countFrauds(Dataset dataset, int rows, int excludedFirst, int excludedLast) {
+        int fraudCount = 0;
+        for (int row = 0; row < rows; ++row) {
+            if ((row < excludedFirst || row >= excludedLast) && dataset.getOutput(row) != 0) {
+                ++fraudCount;
+            }
+        }
+        return fraudCount;
+    }
+}
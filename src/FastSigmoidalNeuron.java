@@ -0,0 +1,86 @@
+/**
+ *  sigmoidal bipolar neuron which approximates its activation function with a precomputed table
+ *  and linear interpolation instead of calculating exponential function.
+ *  For arguments in [-RANGE, RANGE] interpolation error is at most h^2 / 8 * max|f''|, where h = 1 / STEPS_PER_UNIT
+ *  and max|f''| = ALPHA^2 / (3 * sqrt(3)) ~= 1.2 for ALPHA = 2.5; outside of it the function differs from +/-1
+ *  by less than 1 - tanh(ALPHA * RANGE / 2) ~= 4.1e-9. Together it gives MAX_ERROR.
+ *  Table is calculated for DEFAULT_ALPHA; other steepness is obtained by scaling the argument, which keeps the bound
+ */
+public class FastSigmoidalNeuron extends SigmoidalNeuron {
+
+    // upper bound of absolute difference between approximated and exact activation function
+    public static final double MAX_ERROR = 2.5e-6;
+
+    private static final double RANGE = 8.0;
+    private static final int STEPS_PER_UNIT = 256;
+    private static final int LAST_INDEX = (int) (2 * RANGE * STEPS_PER_UNIT);
+
+    // values of exact activation function in points -RANGE + i / STEPS_PER_UNIT
+    private static final double[] TABLE = createTable();
+
+    // ratio of steepness of this neuron and steepness the table is calculated for
+    private final double scale;
+
+    /**
+     * @see SigmoidalNeuron#SigmoidalNeuron()
+     */
+    public FastSigmoidalNeuron() {
+        this(DEFAULT_ALPHA);
+    }
+
+    /**
+     * @see SigmoidalNeuron#SigmoidalNeuron(double)
+     */
+    public FastSigmoidalNeuron(double alpha) {
+        this(alpha, false);
+    }
+
+    /**
+     * @see SigmoidalNeuron#SigmoidalNeuron(double, boolean)
+     */
+    public FastSigmoidalNeuron(double alpha, boolean enableConstAddend) {
+        super(alpha, enableConstAddend);
+        this.scale = alpha / DEFAULT_ALPHA;
+    }
+
+    /**
+     * @see Neuron#activate(double)
+     */
+    @Override
+    public double activate(double value) {
+        return interpolate(scale * value);
+    }
+
+    /**
+     * @see Neuron#activate(double[], double[], int, int)
+     */
+    @Override
+    public void activate(double[] signals, double[] outputs, int offset, int count) {
+        for (int i = offset; i < offset + count; ++i) {
+            outputs[i] = interpolate(scale * signals[i]);
+        }
+    }
+
+    /**
+     * interpolation between two neighbouring values of the table, written without branches
+     * so that JIT can turn it into conditional moves
+     */
+    private static double interpolate(double value) {
+        double position = (value + RANGE) * STEPS_PER_UNIT;
+        position = (position < 0.0) ? 0.0 : position;
+        position = (position > LAST_INDEX) ? LAST_INDEX : position;
+        int index = (int) position;
+        index = (index > LAST_INDEX - 1) ? LAST_INDEX - 1 : index;
+        double fraction = position - index;
+        return TABLE[index] + fraction * (TABLE[index + 1] - TABLE[index]);
+    }
+
+    private static double[] createTable() {
+        SigmoidalNeuron exact = new SigmoidalNeuron();
+        double[] table = new double[LAST_INDEX + 1];
+        for (int i = 0; i <= LAST_INDEX; ++i) {
+            table[i] = exact.activate(-RANGE + (double) i / STEPS_PER_UNIT);
+        }
+        return table;
+    }
+}
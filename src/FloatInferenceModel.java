@@ -0,0 +1,100 @@
+/**
+ *  read-only snapshot of a trained network with weights and activations stored in single precision.
+ *  It needs half of memory and memory bandwidth of InferenceModel, at the cost of precision
+ *  @see InferenceModel
+ */
+public class FloatInferenceModel implements Classifier {
+
+    // types of neurons of each layer
+    private final Neuron[] neurons;
+
+    // weights of each layer stored row-major, as in Layer
+    private final float[][] weights;
+
+    private final int[] sizes;
+    private final int[] inputs;
+
+    // size of the widest layer (including input vector)
+    private final int maxWidth;
+
+    private final ThreadLocal<float[]> scratch;
+
+    /**
+     * creates single precision snapshot of current weights of given network
+     * @param network trained network
+     */
+    public FloatInferenceModel(Network network) {
+        Layer[] layers = network.getLayers();
+        this.neurons = new Neuron[layers.length];
+        this.weights = new float[layers.length][];
+        this.sizes = new int[layers.length];
+        this.inputs = new int[layers.length];
+        int width = network.getNumberOfInputs();
+        for (int l = 0; l < layers.length; ++l) {
+            double[] layerWeights = layers[l].getWeights();
+            neurons[l] = layers[l].getNeuron();
+            weights[l] = new float[layerWeights.length];
+            for (int i = 0; i < layerWeights.length; ++i) {
+                weights[l][i] = (float) layerWeights[i];
+            }
+            sizes[l] = layers[l].getSize();
+            inputs[l] = layers[l].getNumberOfInputs();
+            width = Math.max(width, sizes[l]);
+        }
+        this.maxWidth = width;
+        this.scratch = ThreadLocal.withInitial(() -> new float[2 * maxWidth]);
+    }
+
+    @Override
+    public int getNumberOfInputs() {
+        return inputs[0];
+    }
+
+    @Override
+    public int getNumberOfOutputs() {
+        return sizes[sizes.length - 1];
+    }
+
+    /**
+     * calculates network's output using thread-local scratch buffer
+     * @see Classifier#classify(double[], double[])
+     */
+    @Override
+    public void classify(double[] inputVector, double[] outputVector) {
+        float[] buffer = scratch.get();
+        // activations of consecutive layers are written alternately to both halves of scratch buffer
+        for (int i = 0; i < inputs[0]; ++i) {
+            buffer[i] = (float) inputVector[i];
+        }
+        int inputOffset = 0;
+        for (int l = 0; l < weights.length; ++l) {
+            int outputOffset = maxWidth - inputOffset;
+            calculateLayer(l, buffer, inputOffset, outputOffset);
+            inputOffset = outputOffset;
+        }
+        for (int i = 0; i < getNumberOfOutputs(); ++i) {
+            outputVector[i] = buffer[inputOffset + i];
+        }
+    }
+
+    /**
+     * calculates output values of all neurons of a single layer
+     */
+    private void calculateLayer(int l, float[] buffer, int inputOffset, int outputOffset) {
+        float[] layerWeights = weights[l];
+        Neuron neuron = neurons[l];
+        boolean constAddend = neuron.isConstAddendEnabled();
+        int count = inputs[l];
+        int stride = count + 1;
+        for (int n = 0, row = 0; n < sizes[l]; ++n, row += stride) {
+            float sum = 0.0f;
+            for (int i = 0; i < count; ++i) {
+                sum += layerWeights[row + i] * buffer[inputOffset + i];
+            }
+            if (constAddend) {
+                sum += layerWeights[row + count];
+            }
+            buffer[outputOffset + n] = (float) neuron.activate(sum);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *  class training network asynchronously in Hogwild style. Every thread iterates over its own, disjoint shard
+ *  of samples and updates weights of the network in place after each sample, without any locks.
+ *  Updates colliding on the same weight may be lost, which barely matters for sparse data like fraud transactions.
+ *  Workers read weights with plain reads while other threads write them, so the only guarantee is that every
+ *  written value is whole; momentum state is shared by all workers
+ *  @see Layer#correctSharedWeights(Layer)
+ */
+public class HogwildTrainer {
+    private Network network;
+    private int threads;
+
+    /**
+     * @param network network that will be trained
+     * @param threads number of worker threads
+     */
+    public HogwildTrainer(Network network, int threads) {
+        this.network = network;
+        this.threads = threads;
+    }
+
+    /**
+     * trains network on given samples
+     * @param inputVectors input values given to the network, one vector per sample
+     * @param learningPatterns vectors of correct output values, one per sample
+     * @param epochs number of passes every thread makes over its shard
+     */
+    public void learn(double[][] inputVectors, int[][] learningPatterns, int epochs) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Callable<Void>> shards = new ArrayList<>(threads);
+        for (int i = 0; i < threads; ++i) {
+            int first = inputVectors.length * i / threads;
+            int last = inputVectors.length * (i + 1) / threads;
+            Network worker = network.createWorker();
+            shards.add(() -> {
+                for (int epoch = 0; epoch < epochs; ++epoch) {
+                    for (int j = first; j < last; ++j) {
+                        worker.learn(inputVectors[j], learningPatterns[j]);
+                        worker.validateSharedLearning(network);
+                    }
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> result : executor.invokeAll(shards)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Training interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Training failed", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
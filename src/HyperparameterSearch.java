@@ -0,0 +1,294 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *  class searching for topology and learning parameters giving the lowest weighted error on held-out data.
+ *  Many trainings run at once, all reading the same in-memory data set through their own parsers.
+ *  Successive halving trains all configurations briefly, then repeatedly keeps the better half
+ *  and continues training it for twice as many epochs, so losing configurations are cut off early
+ */
+public class HyperparameterSearch {
+    private Dataset dataset;
+    private ValidationSet validationSet;
+    private ExecutorService executor;
+
+    // cost of undetected fraud relative to false positive
+    private double weight;
+
+    private long seed;
+
+    /**
+     * Usage: HyperparameterSearch data [grid|random|halving] [threads]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Uzycie: HyperparameterSearch dane [grid|random|halving] [watki]");
+            return;
+        }
+        String mode = args.length > 1 ? args[1] : "halving";
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        HyperparameterSearch search = new HyperparameterSearch(Dataset.open(args[0], ';', true), 0.2,
+                threads, NetworkController.DEFAULT_WEIGHT, 1L);
+        try {
+            List<Trial> trials;
+            if (mode.equals("grid")) {
+                trials = search.evaluate(grid(new int[] {1, 2, 4}, new int[] {10, 40}, new double[] {0.05, 0.1, 0.2},
+                        new double[] {0.0, 0.07}, new double[] {1.5, 2.5}), 400, 100);
+            } else if (mode.equals("random")) {
+                trials = search.evaluate(random(20, 2L), 400, 100);
+            } else {
+                trials = search.successiveHalving(random(64, 2L), 400, 5, 5);
+            }
+            printLeaderboard(trials);
+        } finally {
+            search.shutdown();
+        }
+    }
+
+    /**
+     * @param dataset data set shared by all trainings
+     * @param validationFraction part of rows at the end of data set used to compare configurations
+     * @param threads number of trainings run at once
+     * @param weight cost of undetected fraud relative to false positive
+     * @param seed seed of initial weights, the same for all configurations
+     */
+    public HyperparameterSearch(Dataset dataset, double validationFraction, int threads, double weight, long seed) {
+        this.dataset = dataset;
+        int validationRows = (int) (dataset.getNumberOfRows() * validationFraction);
+        this.validationSet = new ValidationSet(dataset, dataset.getNumberOfRows() - validationRows, threads, seed);
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "hyperparameter-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.weight = weight;
+        this.seed = seed;
+    }
+
+    /**
+     * @return all combinations of given values
+     */
+    public static List<Configuration> grid(int[] hiddenLayers, int[] neuronsPerLayer, double[] learningRates,
+                                           double[] momentums, double[] hiddenAlphas) {
+        List<Configuration> configurations = new ArrayList<>();
+        for (int layers : hiddenLayers) {
+            for (int neurons : neuronsPerLayer) {
+                for (double learningRate : learningRates) {
+                    for (double momentum : momentums) {
+                        for (double hiddenAlpha : hiddenAlphas) {
+                            configurations.add(new Configuration(layers, neurons, learningRate, momentum,
+                                    hiddenAlpha, LinearNeuron.DEFAULT_ALPHA));
+                        }
+                    }
+                }
+            }
+        }
+        return configurations;
+    }
+
+    /**
+     * @param count number of configurations
+     * @param seed seed of random generator
+     * @return configurations with parameters drawn from ranges around the default ones,
+     * learning rate and output slope on logarithmic scale
+     */
+    public static List<Configuration> random(int count, long seed) {
+        Random random = new Random(seed);
+        List<Configuration> configurations = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            configurations.add(new Configuration(1 + random.nextInt(4), 8 + random.nextInt(57),
+                    Math.pow(10.0, -2.0 + 1.5 * random.nextDouble()), 0.2 * random.nextDouble(),
+                    1.0 + 3.0 * random.nextDouble(), Math.pow(10.0, -1.5 + random.nextDouble())));
+        }
+        return configurations;
+    }
+
+    /**
+     * trains every configuration for a specified number of epochs
+     * @param configurations compared configurations
+     * @param samplesPerEpoch number of input sets used during training session, limited to rows preceding validation set
+     * @param epochs number of epochs
+     * @return trials sorted by weighted error rate
+     */
+    public List<Trial> evaluate(List<Configuration> configurations, int samplesPerEpoch, int epochs) {
+        List<Trial> trials = createTrials(configurations, samplesPerEpoch);
+        train(trials, epochs);
+        trials.sort(Comparator.comparingDouble(Trial::getErrorRate));
+        return trials;
+    }
+
+    /**
+     * trains all configurations for initial number of epochs, then in every round keeps the better half,
+     * doubles the number of epochs and continues training of kept configurations
+     * @param configurations compared configurations
+     * @param samplesPerEpoch number of input sets used during training session, limited to rows preceding validation set
+     * @param initialEpochs number of epochs of the first round
+     * @param rounds maximal number of rounds
+     * @return all trials, the ones which survived more rounds first, each group sorted by weighted error rate
+     */
+    public List<Trial> successiveHalving(List<Configuration> configurations, int samplesPerEpoch, int initialEpochs, int rounds) {
+        List<Trial> all = createTrials(configurations, samplesPerEpoch);
+        List<Trial> alive = new ArrayList<>(all);
+        int epochs = initialEpochs;
+        for (int round = 0; round < rounds && !alive.isEmpty(); ++round) {
+            // trials continue from where they stopped, so only the missing epochs are run
+            train(alive, epochs);
+            alive.sort(Comparator.comparingDouble(Trial::getErrorRate));
+            if (alive.size() == 1) {
+                break;
+            }
+            alive = new ArrayList<>(alive.subList(0, (alive.size() + 1) / 2));
+            epochs *= 2;
+        }
+        all.sort(Comparator.comparingInt((Trial trial) -> -trial.getEpochs()).thenComparingDouble(Trial::getErrorRate));
+        return all;
+    }
+
+    /**
+     * displays trials in given order
+     */
+    public static void printLeaderboard(List<Trial> trials) {
+        System.out.println("Miejsce;warstwy;neurony;wsp. uczenia;momentum;alfa ukryte;alfa wyjscie;epoki;false positives;undetected;blad wazony");
+        for (int i = 0; i < trials.size(); ++i) {
+            Trial trial = trials.get(i);
+            Configuration c = trial.getConfiguration();
+            System.out.println(String.format(Locale.ROOT, "%d;%d;%d;%.4f;%.3f;%.2f;%.3f;%d;%d;%d;%.5f", i + 1,
+                    c.hiddenLayers, c.neuronsPerLayer, c.learningRate, c.momentum, c.hiddenAlpha, c.outputAlpha,
+                    trial.getEpochs(), trial.falsePositives, trial.undetectedFrauds, trial.getErrorRate()));
+        }
+    }
+
+    /**
+     * stops training and validation threads
+     */
+    public void shutdown() {
+        executor.shutdown();
+        validationSet.shutdown();
+    }
+
+    private List<Trial> createTrials(List<Configuration> configurations, int samplesPerEpoch) {
+        List<Trial> trials = new ArrayList<>(configurations.size());
+        for (Configuration configuration : configurations) {
+            trials.add(new Trial(configuration, Math.min(samplesPerEpoch, validationSet.getFirstRow())));
+        }
+        return trials;
+    }
+
+    /**
+     * trains given trials in parallel until each of them completes given number of epochs, then evaluates them
+     */
+    private void train(List<Trial> trials, int epochs) {
+        List<Callable<Void>> tasks = new ArrayList<>(trials.size());
+        for (Trial trial : trials) {
+            tasks.add(() -> {
+                trial.train(epochs);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Search interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search failed", e.getCause());
+        }
+    }
+
+    /**
+     * topology and learning parameters of a network
+     */
+    public static class Configuration {
+        private int hiddenLayers;
+        private int neuronsPerLayer;
+        private double learningRate;
+        private double momentum;
+        private double hiddenAlpha;
+        private double outputAlpha;
+
+        public Configuration(int hiddenLayers, int neuronsPerLayer, double learningRate, double momentum,
+                             double hiddenAlpha, double outputAlpha) {
+            this.hiddenLayers = hiddenLayers;
+            this.neuronsPerLayer = neuronsPerLayer;
+            this.learningRate = learningRate;
+            this.momentum = momentum;
+            this.hiddenAlpha = hiddenAlpha;
+            this.outputAlpha = outputAlpha;
+        }
+
+        /**
+         * @param inputs number of input values
+         * @param seed seed of initial weights
+         * @return untrained network with this configuration and a single output
+         */
+        public Network createNetwork(int inputs, long seed) {
+            Network network = new Network(inputs, 1, hiddenLayers, neuronsPerLayer, seed);
+            network.setLearningRate(learningRate);
+            network.setMomentum(momentum);
+            network.setActivationSlopes(hiddenAlpha, outputAlpha);
+            return network;
+        }
+    }
+
+    /**
+     * training of a single configuration together with its latest evaluation
+     */
+    public class Trial {
+        private Configuration configuration;
+        private Network network;
+        private NetworkController controller;
+        private InputParser inputParser;
+        private int samplesPerEpoch;
+        private int falsePositives;
+        private int undetectedFrauds;
+        private double errorRate = Double.MAX_VALUE;
+
+        Trial(Configuration configuration, int samplesPerEpoch) {
+            this.configuration = configuration;
+            this.network = configuration.createNetwork(dataset.getNumberOfParameters(), seed);
+            this.controller = new NetworkController(network);
+            this.controller.setWeight(weight);
+            this.inputParser = new InputParser(dataset);
+            this.samplesPerEpoch = samplesPerEpoch;
+        }
+
+        public Configuration getConfiguration() {
+            return configuration;
+        }
+
+        public Network getNetwork() {
+            return network;
+        }
+
+        public int getEpochs() {
+            return network.getCompletedEpochs();
+        }
+
+        public double getErrorRate() {
+            return errorRate;
+        }
+
+        /**
+         * continues training until the network completes given number of epochs and evaluates it on validation set
+         */
+        void train(int epochs) {
+            controller.teachUsingEpochs(samplesPerEpoch, epochs - network.getCompletedEpochs(), inputParser);
+            ValidationSet.Result result = validationSet.evaluate(new InferenceModel(network), validationSet.getNumberOfRows(),
+                    controller::interpretOutput);
+            falsePositives = result.getFalsePositives();
+            undetectedFrauds = result.getUndetectedFrauds();
+            errorRate = result.getErrorRate(weight);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ *  read-only snapshot of a trained network used for scoring.
+ *  Model never changes after creation, activations are kept in caller-owned or thread-local scratch buffers,
+ *  so it can be used by many threads at once without locks and without allocating memory per call
+ */
+public class InferenceModel implements Classifier {
+
+    // types of neurons of each layer
+    private final Neuron[] neurons;
+
+    // weights of each layer stored row-major, as in Layer
+    private final double[][] weights;
+
+    private final int[] sizes;
+    private final int[] inputs;
+
+    // size of the widest layer (including input vector)
+    private final int maxWidth;
+
+    private final ThreadLocal<double[]> scratch;
+    private final ThreadLocal<double[]> output;
+
+    /**
+     * creates snapshot of current weights of given network
+     * @param network trained network
+     */
+    public InferenceModel(Network network) {
+        this(network, null);
+    }
+
+    /**
+     * creates snapshot of current weights of given network, which shares thread-local buffers with previous
+     * snapshot of the same network, so that threads moving to the new snapshot do not allocate new buffers
+     * @param network trained network
+     * @param previous snapshot of a network of the same topology, null to create new buffers
+     */
+    public InferenceModel(Network network, InferenceModel previous) {
+        Layer[] layers = network.getLayers();
+        this.neurons = new Neuron[layers.length];
+        this.weights = new double[layers.length][];
+        this.sizes = new int[layers.length];
+        this.inputs = new int[layers.length];
+        int width = network.getNumberOfInputs();
+        for (int i = 0; i < layers.length; ++i) {
+            neurons[i] = layers[i].getNeuron();
+            weights[i] = layers[i].getWeights().clone();
+            sizes[i] = layers[i].getSize();
+            inputs[i] = layers[i].getNumberOfInputs();
+            width = Math.max(width, sizes[i]);
+        }
+        this.maxWidth = width;
+        if (previous == null) {
+            // buffers do not refer to this snapshot, so snapshots sharing them can be collected
+            int scratchSize = 2 * width;
+            int outputs = getNumberOfOutputs();
+            this.scratch = ThreadLocal.withInitial(() -> new double[scratchSize]);
+            this.output = ThreadLocal.withInitial(() -> new double[outputs]);
+        } else {
+            if (previous.maxWidth != maxWidth || previous.getNumberOfOutputs() != getNumberOfOutputs()) {
+                throw new IllegalArgumentException("Previous snapshot has different topology");
+            }
+            this.scratch = previous.scratch;
+            this.output = previous.output;
+        }
+    }
+
+    @Override
+    public int getNumberOfInputs() {
+        return inputs[0];
+    }
+
+    @Override
+    public int getNumberOfOutputs() {
+        return sizes[sizes.length - 1];
+    }
+
+    /**
+     * @return buffer big enough to hold activations of two neighbouring layers
+     */
+    public double[] createScratch() {
+        return new double[2 * maxWidth];
+    }
+
+    /**
+     * calculates network's output using thread-local scratch buffer
+     * @param inputVector input values that will be processed by network
+     * @param outputVector vector output values will be written to
+     */
+    @Override
+    public void classify(double[] inputVector, double[] outputVector) {
+        classify(inputVector, outputVector, scratch.get());
+    }
+
+    /**
+     * @param inputVector input values that will be processed by network
+     * @return value of the first network's output
+     */
+    public double score(double[] inputVector) {
+        double[] result = output.get();
+        classify(inputVector, result, scratch.get());
+        return result[0];
+    }
+
+    /**
+     * calculates network's output using caller-owned scratch buffer
+     * @param inputVector input values that will be processed by network
+     * @param outputVector vector output values will be written to
+     * @param scratch buffer created by createScratch(), must not be shared between threads
+     */
+    public void classify(double[] inputVector, double[] outputVector, double[] scratch) {
+        // activations of consecutive layers are written alternately to both halves of scratch buffer
+        double[] input = inputVector;
+        int inputOffset = 0;
+        int outputOffset = 0;
+        int last = weights.length - 1;
+        for (int l = 0; l <= last; ++l) {
+            double[] target = (l == last) ? outputVector : scratch;
+            int targetOffset = (l == last) ? 0 : outputOffset;
+            calculateLayer(l, input, inputOffset, target, targetOffset);
+            input = scratch;
+            inputOffset = outputOffset;
+            outputOffset = maxWidth - outputOffset;
+        }
+    }
+
+    /**
+     * calculates output values of all neurons of a single layer
+     */
+    private void calculateLayer(int l, double[] input, int inputOffset, double[] target, int targetOffset) {
+        double[] layerWeights = weights[l];
+        Neuron neuron = neurons[l];
+        int size = sizes[l];
+        int count = inputs[l];
+        Kernels.multiply(layerWeights, size, count, count + 1, input, inputOffset, target, targetOffset);
+        if (neuron.isConstAddendEnabled()) {
+            Kernels.addColumn(layerWeights, size, count, count + 1, target, targetOffset);
+        }
+        neuron.activate(target, target, targetOffset, size);
+    }
+}
@@ -1,47 +1,353 @@
+import java.io.Closeable;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
-import java.util.List;
+import java.nio.file.StandardOpenOption;
 
-public class InputParser {
+/**
+ *  class reading CSV data line by line. Data is streamed through a small buffer and numbers are parsed
+ *  directly from bytes into reusable arrays, so memory usage does not depend on file size
+ *  and reading a line allocates no objects. Lines can also be taken from a data set held in memory,
+ *  e.g. one read from binary cache by Dataset.open()
+ *  @see Dataset
+ */
+public class InputParser implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
 
-    private List<String> data;
-    private int currentLine;
-    private int firstLine;
-    private char separator;
-    private String[] parsedLine;
+    // largest mantissa that can be represented exactly as double
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
 
+    // powers of ten which are exactly representable as double
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private ReadableByteChannel channel;
+    private byte separator;
+    private boolean skipHeader;
+    private boolean headerPending;
+
+    // bytes read from channel, unread ones are between position and limit
+    private byte[] bytes;
+    private ByteBuffer view;
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+
+    // values of all fields of current line
+    private double[] values;
+    private int numberOfValues;
+
+    // index of the end of recently parsed field
+    private int fieldEnd;
+
+    private double[] parameters;
+    private int[] output;
+
+    // tells whether last field of a line is expected output
+    private boolean labelled;
+
+    // data set lines are taken from instead of parsing CSV, null if CSV is parsed
+    private Dataset dataset;
+    private int currentRow;
+
+    // standardizes parameters of every line, null if raw parameters are returned
+    private Normalizer normalizer;
+
+    /**
+     * opens CSV file for streaming; binary cache of the file is never used, see Dataset.open()
+     * @param path path of CSV file
+     * @param separator character separating fields of a line
+     * @param skipHeader tells whether first line of data should be skipped
+     */
     public InputParser(String path, char separator, boolean skipHeader) throws IOException {
-        this.data = Files.readAllLines(Paths.get(path));
-        this.separator = separator;
-        this.firstLine = skipHeader ? 1 : 0;
-        this.currentLine = this.firstLine;
+        this(FileChannel.open(Paths.get(path), StandardOpenOption.READ), separator, skipHeader);
+    }
+
+    /**
+     * @param dataset data set lines are taken from
+     */
+    public InputParser(Dataset dataset) {
+        this((ReadableByteChannel) null, ';', false);
+        useDataset(dataset);
+    }
+
+    /**
+     * @param channel source of CSV data, begin() is supported only if it is a FileChannel
+     * @param separator character separating fields of a line
+     * @param skipHeader tells whether first line of data should be skipped
+     */
+    public InputParser(ReadableByteChannel channel, char separator, boolean skipHeader) {
+        this(channel, separator, skipHeader, BUFFER_SIZE);
+    }
+
+    /**
+     * @param channel source of CSV data, begin() is supported only if it is a FileChannel
+     * @param separator character separating fields of a line
+     * @param skipHeader tells whether first line of data should be skipped
+     * @param bufferSize initial size of the buffer in bytes, e.g. size of a short input; buffer grows for longer lines
+     */
+    public InputParser(ReadableByteChannel channel, char separator, boolean skipHeader, int bufferSize) {
+        this.channel = channel;
+        this.separator = (byte) separator;
+        this.skipHeader = skipHeader;
+        this.headerPending = skipHeader;
+        this.bytes = new byte[Math.max(bufferSize, 1)];
+        this.view = ByteBuffer.wrap(bytes);
+        this.values = new double[32];
+        this.parameters = new double[0];
+        this.output = new int[1];
+        this.labelled = true;
+    }
+
+    /**
+     * @param labelled tells whether last field of a line is expected output (default) or one more parameter
+     */
+    public void setLabelled(boolean labelled) {
+        this.labelled = labelled;
+    }
+
+    /**
+     * makes parser return standardized parameters; data set read by the parser is not changed
+     * @param normalizer normalizer of parameters, null to return raw parameters
+     */
+    public void setNormalizer(Normalizer normalizer) {
+        this.normalizer = normalizer;
+    }
+
+    /**
+     * @return data set lines are taken from, null if lines are parsed from CSV data
+     */
+    public Dataset getDataset() {
+        return dataset;
     }
 
     public boolean nextLine() {
-        if (currentLine < data.size()) {
-            parsedLine = data.get(currentLine++).split(String.valueOf(separator));
-            return true;
+        if (dataset != null) {
+            if (currentRow < dataset.getNumberOfRows()) {
+                dataset.getParameters(currentRow, parameters);
+                output[0] = dataset.getOutput(currentRow++);
+                if (normalizer != null) {
+                    normalizer.normalize(parameters);
+                }
+                return true;
+            }
+            return false;
+        }
+        try {
+            while (true) {
+                int end = findLineEnd();
+                if (end < 0) {
+                    return false;
+                }
+                if (headerPending) {
+                    headerPending = false;
+                    position = end;
+                } else if (parseLine(end)) {
+                    if (normalizer != null) {
+                        normalizer.normalize(parameters);
+                    }
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return false;
     }
 
+    /**
+     * @return parameters of current line; array is reused, its content changes with every call to nextLine()
+     */
     public double[] getParameters() {
-        int size = parsedLine.length - 1;
-        double[] values = new double[size];
-        for (int i = 0; i < size; ++i) {
-            values[i] = Double.parseDouble(parsedLine[i]);
-        }
-        return values;
+        return parameters;
     }
 
+    /**
+     * @return expected output of current line; array is reused, its content changes with every call to nextLine()
+     */
     public int[] getOutput() {
-        int[] result = new int[1];
-        result[0] = Integer.parseInt(parsedLine[parsedLine.length - 1]);
-        return result;
+        return output;
     }
 
     public void begin() {
-        currentLine = firstLine;
+        if (dataset != null) {
+            currentRow = 0;
+            return;
+        }
+        if (!(channel instanceof FileChannel)) {
+            throw new UnsupportedOperationException("Only file input can be read again");
+        }
+        try {
+            ((FileChannel) channel).position(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        position = 0;
+        limit = 0;
+        endOfInput = false;
+        headerPending = skipHeader;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void useDataset(Dataset dataset) {
+        this.dataset = dataset;
+        this.channel = null;
+        this.parameters = new double[dataset.getNumberOfParameters()];
+        this.currentRow = 0;
+    }
+
+    /**
+     * makes sure whole line starting at current position is in the buffer
+     * @return index just after the line's end (including line separator), -1 if there is no more data
+     */
+    private int findLineEnd() throws IOException {
+        int index = position;
+        while (true) {
+            while (index < limit) {
+                if (bytes[index++] == '\n') {
+                    return index;
+                }
+            }
+            if (endOfInput) {
+                return (position < limit) ? limit : -1;
+            }
+            index -= position;
+            fill();
+        }
+    }
+
+    /**
+     * moves unread bytes to the beginning of buffer and reads more data from channel
+     */
+    private void fill() throws IOException {
+        System.arraycopy(bytes, position, bytes, 0, limit - position);
+        limit -= position;
+        position = 0;
+        if (limit == bytes.length) {
+            // line does not fit into buffer
+            byte[] larger = new byte[2 * bytes.length];
+            System.arraycopy(bytes, 0, larger, 0, limit);
+            bytes = larger;
+            view = ByteBuffer.wrap(bytes);
+        }
+        view.limit(bytes.length).position(limit);
+        int read = channel.read(view);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    /**
+     * parses fields of the line between current position and given end
+     * @return false if the line is empty
+     */
+    private boolean parseLine(int end) {
+        int lineEnd = end;
+        while (lineEnd > position && (bytes[lineEnd - 1] == '\n' || bytes[lineEnd - 1] == '\r')) {
+            --lineEnd;
+        }
+        int start = position;
+        position = end;
+        if (lineEnd == start) {
+            return false;
+        }
+        numberOfValues = 0;
+        for (int i = start; ; i = fieldEnd + 1) {
+            if (numberOfValues == values.length) {
+                double[] larger = new double[2 * values.length];
+                System.arraycopy(values, 0, larger, 0, numberOfValues);
+                values = larger;
+            }
+            values[numberOfValues++] = parseField(i, lineEnd);
+            if (fieldEnd == lineEnd) {
+                break;
+            }
+        }
+        int numberOfParameters = labelled ? numberOfValues - 1 : numberOfValues;
+        if (parameters.length != numberOfParameters) {
+            parameters = new double[numberOfParameters];
+        }
+        System.arraycopy(values, 0, parameters, 0, numberOfParameters);
+        output[0] = labelled ? (int) values[numberOfValues - 1] : 0;
+        return true;
+    }
+
+    /**
+     * parses decimal number stored in bytes starting at given index and stores index of the field's end in fieldEnd.
+     * Numbers with at most 15 significant digits and small exponent are calculated exactly from their digits
+     * in a single pass, other ones are passed to Double.parseDouble
+     * @param from index of field's first byte
+     * @param lineEnd index of line's end
+     */
+    private double parseField(int from, int lineEnd) {
+        int i = from;
+        boolean negative = false;
+        if (i < lineEnd && (bytes[i] == '-' || bytes[i] == '+')) {
+            negative = bytes[i++] == '-';
+        }
+        long mantissa = 0;
+        int exponent = 0;
+        int digits = 0;
+        boolean fraction = false;
+        for (; i < lineEnd; ++i) {
+            byte c = bytes[i];
+            if (c >= '0' && c <= '9') {
+                if (mantissa >= MAX_EXACT_MANTISSA / 10) {
+                    return parseFieldSlow(from, lineEnd);
+                }
+                mantissa = 10 * mantissa + (c - '0');
+                if (fraction) {
+                    --exponent;
+                }
+                ++digits;
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (i < lineEnd && (bytes[i] == 'e' || bytes[i] == 'E')) {
+            int sign = 1;
+            int value = 0;
+            if (++i < lineEnd && (bytes[i] == '-' || bytes[i] == '+')) {
+                sign = bytes[i++] == '-' ? -1 : 1;
+            }
+            int exponentStart = i;
+            for (; i < lineEnd && bytes[i] >= '0' && bytes[i] <= '9' && value < 1000; ++i) {
+                value = 10 * value + (bytes[i] - '0');
+            }
+            if (i == exponentStart) {
+                return parseFieldSlow(from, lineEnd);
+            }
+            exponent += sign * value;
+        }
+        if ((i < lineEnd && bytes[i] != separator) || digits == 0 || exponent < -22 || exponent > 22) {
+            return parseFieldSlow(from, lineEnd);
+        }
+        fieldEnd = i;
+        // both mantissa and power of ten are exact, so a single division or multiplication is correctly rounded
+        double result = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        return negative ? -result : result;
+    }
+
+    private double parseFieldSlow(int from, int lineEnd) {
+        fieldEnd = from;
+        while (fieldEnd < lineEnd && bytes[fieldEnd] != separator) {
+            ++fieldEnd;
+        }
+        return Double.parseDouble(new String(bytes, from, fieldEnd - from, StandardCharsets.ISO_8859_1));
     }
 }
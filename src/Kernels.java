@@ -0,0 +1,90 @@
+/**
+ *  dense kernels used by layers' forward and backward passes: element-wise loops over plain arrays without
+ *  dependencies between iterations, and dot products calculated for four rows at once. A dot product is a chain
+ *  of dependent additions, which the JIT compiler keeps in order for doubles, so four rows keep four independent
+ *  chains in flight instead. Every single sum is still accumulated in the same order, so results are identical
+ *  to simple loops
+ */
+public final class Kernels {
+
+    private Kernels() {
+    }
+
+    /**
+     * multiplies row-major matrix by a vector: result[n] = sum of matrix[n * stride + i] * vector[vectorOffset + i]
+     * @param matrix matrix values
+     * @param rows number of matrix rows
+     * @param columns number of used matrix columns
+     * @param stride distance between beginnings of consecutive rows
+     * @param vector vector values
+     * @param vectorOffset index of the first vector value
+     * @param result vector results are written to
+     * @param resultOffset index of the first result value
+     */
+    public static void multiply(double[] matrix, int rows, int columns, int stride,
+                                double[] vector, int vectorOffset, double[] result, int resultOffset) {
+        int n = 0;
+        for (; n + 3 < rows; n += 4) {
+            int row0 = n * stride;
+            int row1 = row0 + stride;
+            int row2 = row1 + stride;
+            int row3 = row2 + stride;
+            double sum0 = 0.0;
+            double sum1 = 0.0;
+            double sum2 = 0.0;
+            double sum3 = 0.0;
+            for (int i = 0; i < columns; ++i) {
+                double value = vector[vectorOffset + i];
+                sum0 += matrix[row0 + i] * value;
+                sum1 += matrix[row1 + i] * value;
+                sum2 += matrix[row2 + i] * value;
+                sum3 += matrix[row3 + i] * value;
+            }
+            result[resultOffset + n] = sum0;
+            result[resultOffset + n + 1] = sum1;
+            result[resultOffset + n + 2] = sum2;
+            result[resultOffset + n + 3] = sum3;
+        }
+        for (; n < rows; ++n) {
+            int row = n * stride;
+            double sum = 0.0;
+            for (int i = 0; i < columns; ++i) {
+                sum += matrix[row + i] * vector[vectorOffset + i];
+            }
+            result[resultOffset + n] = sum;
+        }
+    }
+
+    /**
+     * adds column of a row-major matrix to results: result[resultOffset + n] += matrix[n * stride + column]
+     */
+    public static void addColumn(double[] matrix, int rows, int column, int stride, double[] result, int resultOffset) {
+        for (int n = 0; n < rows; ++n) {
+            result[resultOffset + n] += matrix[n * stride + column];
+        }
+    }
+
+    /**
+     * y[yOffset + i] += a * x[xOffset + i]
+     */
+    public static void axpy(double a, double[] x, int xOffset, double[] y, int yOffset, int length) {
+        for (int i = 0; i < length; ++i) {
+            y[yOffset + i] += a * x[xOffset + i];
+        }
+    }
+
+    /**
+     * corrects weights with accumulated changes and momentum, stores old weights and clears changes
+     * @param from index of the first corrected weight
+     * @param to index after the last corrected weight
+     * @param momentum momentum parameter
+     */
+    public static void correct(double[] weights, double[] exWeights, double[] changes, int from, int to, double momentum) {
+        for (int i = from; i < to; ++i) {
+            double tmp = weights[i];
+            weights[i] += changes[i] + momentum * (weights[i] - exWeights[i]);
+            exWeights[i] = tmp;
+            changes[i] = 0.0;
+        }
+    }
+}
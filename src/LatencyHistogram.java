@@ -0,0 +1,82 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *  lock-free histogram of durations in nanoseconds with log-linear buckets, as in HdrHistogram: values are grouped
+ *  by power of two and every power is split into SUB_BUCKETS linear buckets, so relative error of reported
+ *  values is below 1 / SUB_BUCKETS in the whole range of long. Recording is a single atomic increment
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray((Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * @param value recorded duration in nanoseconds, negative values are counted as 0
+     */
+    public void record(long value) {
+        long recorded = Math.max(value, 0L);
+        counts.incrementAndGet(getIndex(recorded));
+        count.increment();
+        sum.add(recorded);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * @param quantile quantile in range [0, 1]
+     * @return highest value of the bucket containing given quantile of recorded values, 0 if nothing was recorded
+     */
+    public long getQuantile(double quantile) {
+        long total = 0;
+        for (int i = 0; i < counts.length(); ++i) {
+            total += counts.get(i);
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length(); ++i) {
+            seen += counts.get(i);
+            if (seen >= rank && seen > 0) {
+                return getHighestValue(i);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * clears all recorded values
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); ++i) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+    }
+
+    private static int getIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    private static long getHighestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long lowest = ((long) (index & (SUB_BUCKETS - 1)) + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
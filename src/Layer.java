@@ -0,0 +1,446 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.DoubleBuffer;
+import java.util.Random;
+
+/**
+ *  class representing a single layer of the network. State of all its neurons is kept in flat arrays,
+ *  weights are stored row-major - one row of (inputs + 1) values per neuron, the last one being const input's weight
+ */
+public class Layer {
+    public static final double DEFAULT_MOMENTUM = 0.07;
+
+    // gives opaque access to elements of weights arrays updated by threads training without locks
+    private static final VarHandle SHARED_WEIGHT = MethodHandles.arrayElementVarHandle(double[].class);
+
+    // type of neurons forming the layer
+    private Neuron neuron;
+
+    // number of neurons in the layer
+    private int size;
+
+    // number of lower layer inputs
+    private int inputs;
+
+    // length of a single row of weights
+    private int stride;
+
+    // rule of correcting weights, momentum by default
+    private Optimizer optimizer = new MomentumOptimizer(DEFAULT_MOMENTUM);
+
+    private double[] weights;
+    private double[] changes;
+
+    // state of optimizer, e.g. previous weights or moments of changes, in blocks of weights.length values
+    private double[] state;
+
+    // number of performed corrections of weights
+    private long steps;
+
+    // indices of pruned weights kept at zero by weights corrections, null if all weights are trained
+    private int[] prunedWeights;
+
+    // sums of products of input values and their edges' values
+    private double[] inputSums;
+
+    // outputs of neurons
+    private double[] outputs;
+
+    // parameters used during calculating weights changes in neural network
+    private double[] deltas;
+
+    // sums, outputs and deltas of a whole batch of samples, stored row-major (one row per sample)
+    private double[] batchInputSums;
+    private double[] batchOutputs;
+    private double[] batchDeltas;
+
+    /**
+     * @param neuron type of neurons forming the layer
+     * @param size number of neurons in the layer
+     * @param numberOfInputs number of neurons in lower layer
+     */
+    public Layer(Neuron neuron, int size, int numberOfInputs) {
+        this.neuron = neuron;
+        this.size = size;
+        this.inputs = numberOfInputs;
+        this.stride = numberOfInputs + 1;
+        this.weights = new double[size * stride];
+        this.state = new double[optimizer.getStateSize() * size * stride];
+        this.changes = new double[size * stride];
+        this.inputSums = new double[size];
+        this.outputs = new double[size];
+        this.deltas = new double[size];
+        ensureBatchCapacity(1);
+    }
+
+    /**
+     * creates layer of the same shape and with the same weights as given one
+     * @param source layer to be copied
+     * @param shareWeights tells whether new layer should use the very same weights array instead of its copy
+     */
+    public Layer(Layer source, boolean shareWeights) {
+        this(source.neuron, source.size, source.inputs);
+        this.weights = shareWeights ? source.weights : source.weights.clone();
+        this.optimizer = source.optimizer;
+        this.state = source.state.clone();
+        this.steps = source.steps;
+        this.prunedWeights = source.prunedWeights;
+    }
+
+    public Neuron getNeuron() {
+        return neuron;
+    }
+
+    /**
+     * @param neuron type of neurons forming the layer; if its const input setting differs from the current one,
+     * weights of const input should be set accordingly
+     */
+    public void setNeuron(Neuron neuron) {
+        this.neuron = neuron;
+    }
+
+    public Optimizer getOptimizer() {
+        return optimizer;
+    }
+
+    /**
+     * changes rule of correcting weights; state is kept if the new optimizer is of the same kind as the previous one,
+     * e.g. only its parameters change, otherwise it is cleared
+     * @param optimizer optimizer used by following corrections
+     */
+    public void setOptimizer(Optimizer optimizer) {
+        if (optimizer.getClass() != this.optimizer.getClass()) {
+            state = new double[optimizer.getStateSize() * weights.length];
+            steps = 0;
+        }
+        this.optimizer = optimizer;
+    }
+
+    public long getSteps() {
+        return steps;
+    }
+
+    public void setSteps(long steps) {
+        this.steps = steps;
+    }
+
+    /**
+     * @return momentum of momentum optimizer, 0.0 if layer uses another one
+     */
+    public double getMomentum() {
+        return (optimizer instanceof MomentumOptimizer) ? ((MomentumOptimizer) optimizer).getMomentum() : 0.0;
+    }
+
+    /**
+     * makes layer use momentum optimizer
+     * @param momentum share of the previous weight change added to the current one
+     */
+    public void setMomentum(double momentum) {
+        setOptimizer(new MomentumOptimizer(momentum));
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getNumberOfInputs() {
+        return inputs;
+    }
+
+    public int getStride() {
+        return stride;
+    }
+
+    public double[] getWeights() {
+        return weights;
+    }
+
+    /**
+     * @return optimizer state, getOptimizer().getStateSize() blocks of getWeights().length values
+     */
+    public double[] getState() {
+        return state;
+    }
+
+    public int[] getPrunedWeights() {
+        return prunedWeights;
+    }
+
+    /**
+     * sets given weights to zero and keeps them there during further training
+     * @param prunedWeights indices of pruned weights, null to train all weights again
+     */
+    public void setPrunedWeights(int[] prunedWeights) {
+        this.prunedWeights = prunedWeights;
+        clearPrunedWeights();
+    }
+
+    public double[] getOutputs() {
+        return outputs;
+    }
+
+    public double[] getBatchOutputs() {
+        return batchOutputs;
+    }
+
+    /**
+     * stores weights and optimizer state of the layer
+     * @param buffer buffer with room for (1 + getOptimizer().getStateSize()) * getWeights().length values
+     */
+    public void saveState(DoubleBuffer buffer) {
+        buffer.put(weights).put(state);
+    }
+
+    /**
+     * restores weights and optimizer state stored by saveState()
+     * @param buffer buffer with state of a layer of the same shape and optimizer
+     */
+    public void loadState(DoubleBuffer buffer) {
+        buffer.get(weights).get(state);
+        for (int i = 0; i < changes.length; ++i) {
+            changes[i] = 0.0;
+        }
+    }
+
+    /**
+     * overwrites weights and optimizer state with the ones of given layer
+     * @param source layer of the same shape and optimizer
+     */
+    public void copyState(Layer source) {
+        System.arraycopy(source.weights, 0, weights, 0, weights.length);
+        System.arraycopy(source.state, 0, state, 0, state.length);
+        steps = source.steps;
+        for (int i = 0; i < changes.length; ++i) {
+            changes[i] = 0.0;
+        }
+    }
+
+    /**
+     * makes sure batch buffers are able to hold given number of samples
+     * @param batchSize number of samples in a batch
+     */
+    public void ensureBatchCapacity(int batchSize) {
+        if (batchOutputs == null || batchOutputs.length < batchSize * size) {
+            batchInputSums = new double[batchSize * size];
+            batchOutputs = new double[batchSize * size];
+            batchDeltas = new double[batchSize * size];
+        }
+    }
+
+    /**
+     * Generates random weights for edges connecting neurons of this layer with ones from previous layer
+     * @param randomEngine source of random values
+     * @param clearWeights tells whether all weights should be set to 0.0
+     */
+    public void setNewWeights(Random randomEngine, boolean clearWeights) {
+        for (int i = 0; i < weights.length; ++i) {
+            weights[i] = clearWeights ? 0.0 : randomEngine.nextDouble() - 0.5;
+        }
+        resetState();
+    }
+
+    /**
+     * clears accumulated changes and optimizer state, so that training continues as if current weights were initial
+     */
+    public void resetState() {
+        for (int i = 0; i < changes.length; ++i) {
+            changes[i] = 0.0;
+        }
+        for (int i = 0; i < state.length; ++i) {
+            state[i] = 0.0;
+        }
+        steps = 0;
+    }
+
+    /**
+     *  calculates output values of all neurons based on values on layer's input
+     * @param input output values of lower layer or network's input vector
+     */
+    public void calculateOutputs(double[] input) {
+        Kernels.multiply(weights, size, inputs, stride, input, 0, inputSums, 0);
+        if (neuron.isConstAddendEnabled()) {
+            Kernels.addColumn(weights, size, inputs, stride, inputSums, 0);
+        }
+        neuron.activate(inputSums, outputs, 0, size);
+    }
+
+    /**
+     * calculates deltas of the output layer - differences between output values and given correct values
+     * @param learningPattern vector of correct output values
+     */
+    public void calculateOutputDeltas(int[] learningPattern) {
+        for (int n = 0; n < size; ++n) {
+            deltas[n] = (learningPattern[n] - outputs[n]) * neuron.activateDerivative(inputSums[n], outputs[n]);
+        }
+    }
+
+    /**
+     * calculates deltas of a hidden layer using deltas of the layer above it
+     * @param upper higher layer, which deltas are already calculated
+     */
+    public void calculateHiddenDeltas(Layer upper) {
+        // sum products of higher layer's deltas and the weights of connecting edges, row by row
+        for (int n = 0; n < size; ++n) {
+            deltas[n] = 0.0;
+        }
+        for (int j = 0, row = 0; j < upper.size; ++j, row += upper.stride) {
+            Kernels.axpy(upper.deltas[j], upper.weights, row, deltas, 0, size);
+        }
+        for (int n = 0; n < size; ++n) {
+            deltas[n] *= neuron.activateDerivative(inputSums[n], outputs[n]);
+        }
+    }
+
+    /**
+     * accumulates changes of weights based on previously calculated deltas
+     * @param input input vector the deltas were calculated for
+     * @param learningRate learning rate of the network
+     */
+    public void calculateChanges(double[] input, double learningRate) {
+        boolean constAddend = neuron.isConstAddendEnabled();
+        for (int n = 0, row = 0; n < size; ++n, row += stride) {
+            // store value of formula in order to speed up calculations
+            double tmp = 2 * learningRate * deltas[n];
+            Kernels.axpy(tmp, input, 0, changes, row, inputs);
+            // additional calculation if const input is enabled
+            if (constAddend) {
+                changes[row + inputs] += tmp;
+            }
+        }
+    }
+
+    /**
+     * moves changes accumulated by another layer of the same shape to this layer
+     * @param other layer which changes are added to changes of this layer and then cleared
+     * @param scale factor multiplying added changes
+     */
+    public void addChanges(Layer other, double scale) {
+        for (int i = 0; i < changes.length; ++i) {
+            changes[i] += scale * other.changes[i];
+            other.changes[i] = 0.0;
+        }
+    }
+
+    /**
+     * Changing values of weights using back propagation algorithm
+     */
+    public void correctWeights() {
+        optimizer.correct(weights, state, changes, stride, neuron.isConstAddendEnabled() ? stride : inputs, ++steps);
+        clearPrunedWeights();
+    }
+
+    /**
+     * Changing values of weights shared with other threads without any locking.
+     * Only this method's own reads and writes are opaque, so a value it writes is never torn. Forward and backward
+     * passes of workers (Kernels.multiply, axpy) read shared weights with plain reads, which the memory model
+     * allows to see a torn or stale value, and concurrent updates of the same weight may be lost;
+     * asynchronous training tolerates both. All workers share one optimizer state of the shared layer,
+     * i.e. previous weights used by momentum, so momentum of a weight mixes updates of all threads.
+     * Only momentum optimizer is supported
+     * @param shared layer owning the weights, which momentum and momentum state are used and updated
+     */
+    public void correctSharedWeights(Layer shared) {
+        if (!(shared.optimizer instanceof MomentumOptimizer)) {
+            throw new IllegalStateException("Asynchronous training supports only momentum optimizer");
+        }
+        double momentum = ((MomentumOptimizer) shared.optimizer).getMomentum();
+        int rowLength = neuron.isConstAddendEnabled() ? stride : inputs;
+        for (int row = 0; row < weights.length; row += stride) {
+            for (int i = row; i < row + rowLength; ++i) {
+                double current = (double) SHARED_WEIGHT.getOpaque(shared.weights, i);
+                double previous = (double) SHARED_WEIGHT.getOpaque(shared.state, i);
+                SHARED_WEIGHT.setOpaque(shared.weights, i, current + changes[i] + momentum * (current - previous));
+                SHARED_WEIGHT.setOpaque(shared.state, i, current);
+                changes[i] = 0.0;
+            }
+        }
+        if (shared.prunedWeights != null) {
+            for (int i : shared.prunedWeights) {
+                SHARED_WEIGHT.setOpaque(shared.weights, i, 0.0);
+                SHARED_WEIGHT.setOpaque(shared.state, i, 0.0);
+            }
+        }
+    }
+
+    /**
+     * zeroes pruned weights together with their optimizer state, so that momentum does not revive them
+     */
+    private void clearPrunedWeights() {
+        if (prunedWeights != null) {
+            for (int i : prunedWeights) {
+                weights[i] = 0.0;
+                for (int k = i; k < state.length; k += weights.length) {
+                    state[k] = 0.0;
+                }
+            }
+        }
+    }
+
+    /**
+     * calculates output values of all neurons for a whole batch of samples
+     * @param input batch of input vectors stored row-major, each row has getNumberOfInputs() values
+     * @param batchSize number of samples in a batch
+     */
+    public void calculateBatchOutputs(double[] input, int batchSize) {
+        boolean constAddend = neuron.isConstAddendEnabled();
+        for (int b = 0; b < batchSize; ++b) {
+            Kernels.multiply(weights, size, inputs, stride, input, b * inputs, batchInputSums, b * size);
+            if (constAddend) {
+                Kernels.addColumn(weights, size, inputs, stride, batchInputSums, b * size);
+            }
+        }
+        neuron.activate(batchInputSums, batchOutputs, 0, batchSize * size);
+    }
+
+    /**
+     * @see Layer#calculateOutputDeltas(int[])
+     * @param learningPatterns vectors of correct output values, one per sample
+     * @param batchSize number of samples in a batch
+     */
+    public void calculateBatchOutputDeltas(int[][] learningPatterns, int batchSize) {
+        for (int b = 0; b < batchSize; ++b) {
+            for (int n = 0, k = b * size; n < size; ++n, ++k) {
+                batchDeltas[k] = (learningPatterns[b][n] - batchOutputs[k]) * neuron.activateDerivative(batchInputSums[k], batchOutputs[k]);
+            }
+        }
+    }
+
+    /**
+     * @see Layer#calculateHiddenDeltas(Layer)
+     * @param batchSize number of samples in a batch
+     */
+    public void calculateBatchHiddenDeltas(Layer upper, int batchSize) {
+        for (int b = 0; b < batchSize; ++b) {
+            int sample = b * size;
+            for (int n = 0; n < size; ++n) {
+                batchDeltas[sample + n] = 0.0;
+            }
+            for (int j = 0, row = 0; j < upper.size; ++j, row += upper.stride) {
+                Kernels.axpy(upper.batchDeltas[b * upper.size + j], upper.weights, row, batchDeltas, sample, size);
+            }
+            for (int n = 0; n < size; ++n) {
+                batchDeltas[sample + n] *= neuron.activateDerivative(batchInputSums[sample + n], batchOutputs[sample + n]);
+            }
+        }
+    }
+
+    /**
+     * accumulates changes of weights averaged over a whole batch of samples
+     * @param input batch of input vectors the deltas were calculated for, stored row-major
+     * @param batchSize number of samples in a batch
+     * @param learningRate learning rate of the network
+     */
+    public void calculateBatchChanges(double[] input, int batchSize, double learningRate) {
+        boolean constAddend = neuron.isConstAddendEnabled();
+        double rate = 2 * learningRate / batchSize;
+        for (int n = 0, row = 0; n < size; ++n, row += stride) {
+            for (int b = 0, sample = 0; b < batchSize; ++b, sample += inputs) {
+                double tmp = rate * batchDeltas[b * size + n];
+                Kernels.axpy(tmp, input, sample, changes, row, inputs);
+                if (constAddend) {
+                    changes[row + inputs] += tmp;
+                }
+            }
+        }
+    }
+}
@@ -3,14 +3,36 @@
  */
 public class LinearNeuron extends Neuron {
 
-    //parameter of exponential function used in calculating activation function
-    private static final double ALPHA = 0.15;
+    //default parameter of exponential function used in calculating activation function
+    public static final double DEFAULT_ALPHA = 0.15;
+
+    private final double alpha;
+
+    /**
+     * @see Neuron#Neuron(boolean)
+     */
+    public LinearNeuron() {
+        this(DEFAULT_ALPHA);
+    }
 
     /**
-     * @see Neuron#Neuron(Network, int, int, boolean)
+     * @param alpha slope of activation function
      */
-    public LinearNeuron(Network network, int numberOfInputs, int layerNumber) {
-        super(network, numberOfInputs, layerNumber, false);
+    public LinearNeuron(double alpha) {
+        this(alpha, false);
+    }
+
+    /**
+     * @param alpha slope of activation function
+     * @param enableConstAddend indicates whether neuron should get additional constant input
+     */
+    public LinearNeuron(double alpha, boolean enableConstAddend) {
+        super(enableConstAddend);
+        this.alpha = alpha;
+    }
+
+    public double getAlpha() {
+        return alpha;
     }
 
     /**
@@ -18,14 +40,14 @@ public class LinearNeuron extends Neuron {
      */
     @Override
     public double activate(double value) {
-        return ALPHA * value;
+        return alpha * value;
     }
 
     /**
-     * @see Neuron#activateDerivative(double)
+     * @see Neuron#activateDerivative(double, double)
      */
     @Override
-    public double activateDerivative(double value) {
-        return ALPHA;
+    public double activateDerivative(double value, double output) {
+        return alpha;
     }
-}
\ No newline at end of file
+}
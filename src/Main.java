@@ -1,14 +1,21 @@
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 public class Main {
+    private static final int EPOCHS = 100;
 
     public static void main(String[] args) {
-        Network network = new Network(29, 1, 4, 40);
-        NetworkController controller = new NetworkController(network);
+        Path modelPath = Paths.get("network.model");
         try {
+            // resume training from the last checkpoint, if there is one
+            Network network = Files.exists(modelPath) ? Network.load(modelPath) : new Network(29, 1, 4, 40);
+            NetworkController controller = new NetworkController(network);
+            controller.setCheckpoint(modelPath, 10);
             //controller.teachUsingQuality(400, new InputParser("bal.csv", ';', true));
-            controller.teachUsingEpochs(400, 100, new InputParser("bal.csv", ';', true));
-            controller.test(new InputParser("ful.csv", ';', true));
+            controller.teachUsingEpochs(400, EPOCHS - network.getCompletedEpochs(), new InputParser(Dataset.open("bal.csv", ';', true)));
+            controller.test(new InputParser(Dataset.open("ful.csv", ';', true)));
         }
         catch (IOException e) {
             e.printStackTrace();
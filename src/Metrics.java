@@ -0,0 +1,133 @@
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *  counters and histograms describing training and scoring. Values are kept in lock-free counters,
+ *  so they can be updated by many threads and read at any time, e.g. by MetricsServer
+ *  @see MetricsServer
+ */
+public class Metrics {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final LongAdder trainedSamples = new LongAdder();
+    private final LongAdder forwardNanos = new LongAdder();
+    private final LongAdder backwardNanos = new LongAdder();
+    private final LongAdder parseNanos = new LongAdder();
+    private final LongAdder completedEpochs = new LongAdder();
+    private final LongAdder epochNanos = new LongAdder();
+
+    // state of the last finished training session
+    private volatile long lastEpochNanos;
+    private volatile long lastEpochSamples;
+    private volatile long lastEpochTime;
+    private volatile double lastErrorCount = Double.NaN;
+
+    private final LatencyHistogram classifyLatency = new LatencyHistogram();
+
+    /**
+     * @param forward time of calculating outputs
+     * @param backward time of calculating deltas and changes of weights
+     * @param samples number of processed samples
+     */
+    public void recordLearning(long forward, long backward, int samples) {
+        forwardNanos.add(forward);
+        backwardNanos.add(backward);
+        trainedSamples.add(samples);
+    }
+
+    /**
+     * @param nanos time of reading training samples
+     */
+    public void recordParsing(long nanos) {
+        parseNanos.add(nanos);
+    }
+
+    /**
+     * @param nanos duration of training session
+     * @param samples number of samples used by training session
+     */
+    public void recordEpoch(long nanos, int samples) {
+        completedEpochs.increment();
+        epochNanos.add(nanos);
+        lastEpochNanos = nanos;
+        lastEpochSamples = samples;
+        lastEpochTime = System.currentTimeMillis();
+    }
+
+    /**
+     * @param errorCount weighted number of errors on validation data, as NetworkController.currentErrorCount
+     */
+    public void recordError(double errorCount) {
+        lastErrorCount = errorCount;
+    }
+
+    /**
+     * @param nanos duration of a single classification
+     */
+    public void recordClassification(long nanos) {
+        classifyLatency.record(nanos);
+    }
+
+    public long getTrainedSamples() {
+        return trainedSamples.sum();
+    }
+
+    public long getCompletedEpochs() {
+        return completedEpochs.sum();
+    }
+
+    public double getLastErrorCount() {
+        return lastErrorCount;
+    }
+
+    /**
+     * @return number of samples per second processed by the last training session
+     */
+    public double getSamplesPerSecond() {
+        long nanos = lastEpochNanos;
+        return nanos == 0 ? 0.0 : lastEpochSamples * 1e9 / nanos;
+    }
+
+    public LatencyHistogram getClassifyLatency() {
+        return classifyLatency;
+    }
+
+    /**
+     * @return all metrics in Prometheus text exposition format
+     */
+    public String toPrometheusText() {
+        StringBuilder text = new StringBuilder();
+        appendMetric(text, "fraud_trained_samples_total", "counter", "Number of samples used for training", trainedSamples.sum());
+        appendMetric(text, "fraud_completed_epochs_total", "counter", "Number of finished training sessions", completedEpochs.sum());
+        appendMetric(text, "fraud_epoch_seconds_total", "counter", "Time of training sessions", epochNanos.sum() / 1e9);
+        appendMetric(text, "fraud_forward_seconds_total", "counter", "Time of calculating outputs during training", forwardNanos.sum() / 1e9);
+        appendMetric(text, "fraud_backward_seconds_total", "counter", "Time of calculating deltas and weights changes", backwardNanos.sum() / 1e9);
+        appendMetric(text, "fraud_parse_seconds_total", "counter", "Time of reading training samples", parseNanos.sum() / 1e9);
+        appendMetric(text, "fraud_last_epoch_seconds", "gauge", "Duration of the last training session", lastEpochNanos / 1e9);
+        appendMetric(text, "fraud_last_epoch_timestamp_seconds", "gauge", "Time the last training session finished", lastEpochTime / 1e3);
+        appendMetric(text, "fraud_samples_per_second", "gauge", "Training speed of the last training session", getSamplesPerSecond());
+        appendMetric(text, "fraud_error_count", "gauge", "Weighted number of errors of the last validation", lastErrorCount);
+
+        text.append("# HELP fraud_classify_latency_seconds Latency of classification\n");
+        text.append("# TYPE fraud_classify_latency_seconds summary\n");
+        for (double quantile : QUANTILES) {
+            text.append(String.format(Locale.ROOT, "fraud_classify_latency_seconds{quantile=\"%s\"} %.9f\n",
+                    quantile, classifyLatency.getQuantile(quantile) / 1e9));
+        }
+        text.append(String.format(Locale.ROOT, "fraud_classify_latency_seconds_sum %.9f\n", classifyLatency.getSum() / 1e9));
+        text.append("fraud_classify_latency_seconds_count ").append(classifyLatency.getCount()).append('\n');
+        return text.toString();
+    }
+
+    private static void appendMetric(StringBuilder text, String name, String type, String help, double value) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        text.append(name).append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            text.append((long) value);
+        } else {
+            text.append(value);
+        }
+        text.append('\n');
+    }
+}
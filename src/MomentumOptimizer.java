@@ -0,0 +1,40 @@
+/**
+ *  gradient descent with momentum: every weight moves by its change and by a share of its previous move.
+ *  State of a weight is its value before the previous correction
+ */
+public class MomentumOptimizer implements Optimizer {
+
+    // share of the previous weight change added to the current one
+    private final double momentum;
+
+    /**
+     * @param momentum share of the previous weight change added to the current one
+     */
+    public MomentumOptimizer(double momentum) {
+        this.momentum = momentum;
+    }
+
+    public double getMomentum() {
+        return momentum;
+    }
+
+    @Override
+    public int getStateSize() {
+        return 1;
+    }
+
+    /**
+     * @see Optimizer#correct(double[], double[], double[], int, int, long)
+     */
+    @Override
+    public void correct(double[] weights, double[] state, double[] changes, int stride, int columns, long step) {
+        if (columns == stride) {
+            // all weights are used, so they can be corrected in a single loop
+            Kernels.correct(weights, state, changes, 0, weights.length, momentum);
+        } else {
+            for (int row = 0; row < weights.length; row += stride) {
+                Kernels.correct(weights, state, changes, row, row + columns, momentum);
+            }
+        }
+    }
+}
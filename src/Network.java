@@ -1,5 +1,41 @@
-public class Network {
-    private static final double DEFAULT_LEARNING_RATE = 0.1;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+public class Network implements Classifier {
+    public static final double DEFAULT_LEARNING_RATE = 0.1;
+
+    // model file format identifier ("FDNN") and its version
+    private static final int MAGIC = 0x46444E4E;
+    private static final int VERSION = 1;
+
+    // header: magic, version, inputs, outputs, hidden layers, neurons per layer, completed epochs, learning rate
+    private static final int HEADER_SIZE = 7 * Integer.BYTES + Double.BYTES;
+    // layer description: neuron type, size, inputs, optimizer type, neuron flags, number of pruned weights,
+    // steepness of activation function, four parameters of optimizer, number of corrections
+    private static final int LAYER_DESCRIPTION_SIZE = 6 * Integer.BYTES + 5 * Double.BYTES + Long.BYTES;
+
+    // neuron types identifiers used in model file
+    private static final int SIGMOIDAL_NEURON = 0;
+    private static final int LINEAR_NEURON = 1;
+
+    // optimizer types identifiers used in model file
+    private static final int MOMENTUM_OPTIMIZER = 0;
+    private static final int ADAM_OPTIMIZER = 1;
+    private static final int RMSPROP_OPTIMIZER = 2;
+
+    // flags of neurons of a layer used in model file
+    private static final int CONST_INPUT_FLAG = 1;
+    private static final int FAST_ACTIVATION_FLAG = 2;
 
     private int numberOfInputs;
     private int numberOfOutputs;
@@ -9,10 +45,17 @@ public class Network {
     private int numberOfNeuronsPerLayer;
 
     private double learningRate;
-    private double[] input;
 
-    private double[] learnVector;
-    private Neuron[][] neurons;
+    // number of training sessions the network went through
+    private int completedEpochs;
+
+    private Layer[] layers;
+
+    // input vectors of the current batch stored row-major
+    private double[] batchInput;
+
+    // receives times of training and classification, null if they are not measured
+    private Metrics metrics;
 
     /**
      *
@@ -22,91 +65,204 @@ public class Network {
      * @param neuronsPerLayer number of neurons per each layer
      */
     public Network(int inputs, int outputs, int hiddenLayers, int neuronsPerLayer) {
+        this(inputs, outputs, hiddenLayers, neuronsPerLayer, new Random());
+    }
+
+    /**
+     * @see Network#Network(int, int, int, int)
+     * @param seed seed of random engine used to generate initial weights
+     */
+    public Network(int inputs, int outputs, int hiddenLayers, int neuronsPerLayer, long seed) {
+        this(inputs, outputs, hiddenLayers, neuronsPerLayer, new Random(seed));
+    }
+
+    private Network(int inputs, int outputs, int hiddenLayers, int neuronsPerLayer, Random randomEngine) {
         this.numberOfInputs = inputs;
         this.numberOfOutputs = outputs;
         this.outputLayer = hiddenLayers;
         this.numberOfNeuronsPerLayer = neuronsPerLayer;
-        this.input = new double[numberOfInputs];
-        this.learnVector = new double[numberOfOutputs];
+        this.batchInput = new double[numberOfInputs];
 
         // create empty layers
-        neurons = new Neuron[hiddenLayers + 1][];
+        layers = new Layer[hiddenLayers + 1];
         // fill layers with neurons
         createLayers();
         // init network
-        init();
+        init(randomEngine);
+    }
+
+    /**
+     * creates network with the same topology and weights as given one
+     * @param source network to be copied
+     * @param shareWeights tells whether layers of new network should use the very same weights arrays
+     */
+    private Network(Network source, boolean shareWeights) {
+        this.numberOfInputs = source.numberOfInputs;
+        this.numberOfOutputs = source.numberOfOutputs;
+        this.outputLayer = source.outputLayer;
+        this.numberOfNeuronsPerLayer = source.numberOfNeuronsPerLayer;
+        this.learningRate = source.learningRate;
+        this.completedEpochs = source.completedEpochs;
+        this.batchInput = new double[numberOfInputs];
+        this.metrics = shareWeights ? source.metrics : null;
+        this.layers = new Layer[source.layers.length];
+        for (int i = 0; i < layers.length; ++i) {
+            layers[i] = new Layer(source.layers[i], shareWeights);
+        }
+    }
+
+    /**
+     * @return independent copy of the network, including its learning state
+     */
+    public Network copy() {
+        return new Network(this, false);
     }
 
     /**
-     * function creates three layers for network neurons
+     * overwrites weights and optimizer state with the ones of given network, e.g. to restore a saved snapshot.
+     * Number of completed epochs is not changed
+     * @param source network of the same topology
      */
+    public void copyState(Network source) {
+        for (int i = 0; i < layers.length; ++i) {
+            layers[i].copyState(source.layers[i]);
+        }
+    }
 
+    /**
+     * @return network reading weights of this network, but keeping its own outputs, deltas and changes.
+     * Used to calculate changes of weights in parallel, which are later moved to this network with addChanges
+     */
+    Network createWorker() {
+        return new Network(this, true);
+    }
+
+    /**
+     * function creates three kinds of layers for network neurons
+     */
     private void createLayers() {
         // 1. create first layer
-        neurons[0] = new Neuron[numberOfNeuronsPerLayer];
-        for (int i = 0; i < numberOfNeuronsPerLayer; ++i) {
-            neurons[0][i] = new SigmoidalNeuron(this, numberOfInputs, 0);
-        }
+        layers[0] = new Layer(new SigmoidalNeuron(), numberOfNeuronsPerLayer, numberOfInputs);
         // 2. create following hidden layers
         for (int i = 1; i < outputLayer; ++i) {
-            neurons[i] = new Neuron[numberOfNeuronsPerLayer];
-            for (int j = 0; j < numberOfNeuronsPerLayer; ++j) {
-                neurons[i][j] = new SigmoidalNeuron(this, numberOfNeuronsPerLayer, i);
-            }
+            layers[i] = new Layer(new SigmoidalNeuron(), numberOfNeuronsPerLayer, numberOfNeuronsPerLayer);
         }
         // 3. Create output layer
-        neurons[outputLayer] = new Neuron[numberOfOutputs];
-        for (int i = 0; i < numberOfOutputs; ++i) {
-            neurons[outputLayer][i] = new LinearNeuron(this, numberOfNeuronsPerLayer, outputLayer);
-        }
-
+        layers[outputLayer] = new Layer(new LinearNeuron(), numberOfOutputs, numberOfNeuronsPerLayer);
     }
 
     public int getNumberOfLayers() {
         return outputLayer;
     }
 
+    @Override
+    public int getNumberOfInputs() {
+        return numberOfInputs;
+    }
+
+    @Override
     public int getNumberOfOutputs() {
         return numberOfOutputs;
     }
 
-    public Neuron[][] getNeurons() {
-        return neurons;
+    public Layer[] getLayers() {
+        return layers;
     }
 
-    public double[] getInput() {
-        return input;
+    public double getLearningRate() {
+        return learningRate;
     }
 
-    public double[] getLearnVector() {
-        return learnVector;
+    /**
+     * changes learning rate; workers created earlier by trainers keep the previous one
+     * @param learningRate learning rate
+     */
+    public void setLearningRate(double learningRate) {
+        this.learningRate = learningRate;
     }
 
-    public double getLearningRate() {
-        return learningRate;
+    public double getMomentum() {
+        return layers[0].getMomentum();
     }
-    
+
+    /**
+     * @param momentum share of the previous weight change added to the current one, used by all layers
+     */
+    public void setMomentum(double momentum) {
+        for (Layer layer : layers) {
+            layer.setMomentum(momentum);
+        }
+    }
+
+    public Optimizer getOptimizer() {
+        return layers[0].getOptimizer();
+    }
+
+    /**
+     * @param optimizer rule of correcting weights used by all layers
+     * @see Layer#setOptimizer(Optimizer)
+     */
+    public void setOptimizer(Optimizer optimizer) {
+        for (Layer layer : layers) {
+            layer.setOptimizer(optimizer);
+        }
+    }
+
+    /**
+     * changes steepness of activation functions, keeping the kind of sigmoidal activation of hidden layers
+     * @param hiddenAlpha steepness of sigmoidal activation function of hidden layers
+     * @param outputAlpha slope of linear activation function of output layer
+     */
+    public void setActivationSlopes(double hiddenAlpha, double outputAlpha) {
+        for (int i = 0; i < outputLayer; ++i) {
+            boolean fast = layers[i].getNeuron() instanceof FastSigmoidalNeuron;
+            boolean constAddend = layers[i].getNeuron().isConstAddendEnabled();
+            layers[i].setNeuron(fast ? new FastSigmoidalNeuron(hiddenAlpha, constAddend) : new SigmoidalNeuron(hiddenAlpha, constAddend));
+        }
+        layers[outputLayer].setNeuron(new LinearNeuron(outputAlpha, layers[outputLayer].getNeuron().isConstAddendEnabled()));
+    }
+
+    /**
+     * switches hidden layers between exact sigmoidal activation and its fast approximation
+     * @param fast tells whether FastSigmoidalNeuron should be used
+     * @see FastSigmoidalNeuron
+     */
+    public void setFastActivation(boolean fast) {
+        for (int i = 0; i < outputLayer; ++i) {
+            double alpha = getAlpha(layers[i].getNeuron());
+            boolean constAddend = layers[i].getNeuron().isConstAddendEnabled();
+            layers[i].setNeuron(fast ? new FastSigmoidalNeuron(alpha, constAddend) : new SigmoidalNeuron(alpha, constAddend));
+        }
+    }
+
     /**
-     * @param layer number of layer in network
-     * @return number of neurons in this particular layer
+     * enables measuring time of training and classification; workers created later report to the same metrics
+     * @param metrics metrics receiving measured times, null to stop measuring
      */
-    public int getLayersSize(int layer) {
-        return (layer == outputLayer - 1) ? numberOfOutputs : numberOfNeuronsPerLayer;
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public int getCompletedEpochs() {
+        return completedEpochs;
+    }
+
+    /**
+     * marks the end of a training session
+     */
+    public void completeEpoch() {
+        ++completedEpochs;
     }
 
     /**
      * initialize neuron network
      */
-    private void init() {
+    private void init(Random randomEngine) {
         learningRate = DEFAULT_LEARNING_RATE;
         for (int i = 0; i < outputLayer; ++i) {
-            for (int j = 0; j < numberOfNeuronsPerLayer; ++j) {
-                neurons[i][j].setNewWeights(false);
-            }
-        }
-        for (int j = 0; j < numberOfOutputs; ++j) {
-            neurons[outputLayer][j].setNewWeights(true);
+            layers[i].setNewWeights(randomEngine, false);
         }
+        layers[outputLayer].setNewWeights(randomEngine, true);
     }
 
     /**
@@ -115,24 +271,73 @@ public class Network {
      * @return output values calculated by the network
      */
     public double[] classify(double[] inputVector) {
-        // Copy input vector to network's input layer
-        for (int i = 0; i < numberOfInputs; ++i) {
-            input[i] = inputVector[i];
-        }
-        // Calculate network's output
-        for (int i = 0; i < outputLayer; ++i)
-            for(int j = 0; j < numberOfNeuronsPerLayer; ++j)
-                neurons[i][j].calculateOutput();
-        for (int i = 0; i < numberOfOutputs; ++i)
-            neurons[outputLayer][i].calculateOutput();
+        double[] output = new double[numberOfOutputs];
+        classify(inputVector, output);
+        return output;
+    }
+
+    /**
+     * calculates network's output without allocating memory. Not thread-safe: outputs of all layers
+     * are kept in the network, so concurrent scoring needs an InferenceModel snapshot
+     * @see Classifier#classify(double[], double[])
+     */
+    @Override
+    public void classify(double[] inputVector, double[] outputVector) {
+        long start = (metrics != null) ? System.nanoTime() : 0L;
+        propagate(inputVector);
         // Copy answer from network's output to output vector
-        double[] output  = new double[numberOfOutputs];
-        for (int i = 0; i < numberOfOutputs; ++i) {
-            output[i] = neurons[outputLayer][i].getOutput();
+        System.arraycopy(layers[outputLayer].getOutputs(), 0, outputVector, 0, numberOfOutputs);
+        if (metrics != null) {
+            metrics.recordClassification(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * calculates output values of a whole batch of samples in one pass through layers
+     * @param inputVectors input values, one vector per sample
+     * @param batchSize number of samples from the beginning of given array that form the batch
+     * @param outputVectors vectors output values are written to, one per sample
+     */
+    public void classifyBatch(double[][] inputVectors, int batchSize, double[][] outputVectors) {
+        propagateBatch(inputVectors, batchSize);
+        double[] outputs = layers[outputLayer].getBatchOutputs();
+        for (int b = 0; b < batchSize; ++b) {
+            System.arraycopy(outputs, b * numberOfOutputs, outputVectors[b], 0, numberOfOutputs);
         }
-        return output;
     }
 
+    /**
+     * calculates outputs of all layers, starting from the one closest to input
+     * @param inputVector input values that will be processed by network
+     */
+    private void propagate(double[] inputVector) {
+        layers[0].calculateOutputs(inputVector);
+        for (int i = 1; i <= outputLayer; ++i) {
+            layers[i].calculateOutputs(layers[i - 1].getOutputs());
+        }
+    }
+
+    /**
+     * calculates outputs of all layers for a whole batch of samples
+     * @param inputVectors input values, one vector per sample
+     * @param batchSize number of samples from the beginning of given array that form the batch
+     */
+    private void propagateBatch(double[][] inputVectors, int batchSize) {
+        // copy input vectors to one matrix, so that layers can process them together
+        if (batchInput.length < batchSize * numberOfInputs) {
+            batchInput = new double[batchSize * numberOfInputs];
+            for (Layer layer : layers) {
+                layer.ensureBatchCapacity(batchSize);
+            }
+        }
+        for (int b = 0; b < batchSize; ++b) {
+            System.arraycopy(inputVectors[b], 0, batchInput, b * numberOfInputs, numberOfInputs);
+        }
+        layers[0].calculateBatchOutputs(batchInput, batchSize);
+        for (int i = 1; i <= outputLayer; ++i) {
+            layers[i].calculateBatchOutputs(layers[i - 1].getBatchOutputs(), batchSize);
+        }
+    }
 
     /**
      * function that trains network to classify input as accurately as possible
@@ -141,36 +346,275 @@ public class Network {
      * @param learningPattern vector of correct output values that will be used to calculate error
      */
     void learn(double[] inputVector, int[] learningPattern) {
+        long start = (metrics != null) ? System.nanoTime() : 0L;
         // calculate network's output
-        double[] output = classify(inputVector);
-        // copy correct output vector to class member, so that it will be accessible from neurons
-        for (int i = 0; i < numberOfOutputs; ++i) {
-            learnVector[i] = learningPattern[i];
+        propagate(inputVector);
+        long forwardEnd = (metrics != null) ? System.nanoTime() : 0L;
+
+        // here backprop algorithm is used, we calculate output deltas first
+        layers[outputLayer].calculateOutputDeltas(learningPattern);
+        // then we calculate deltas of all layers starting from the one closest to output layer
+        for (int i = outputLayer - 1; i >= 0; --i) {
+            layers[i].calculateHiddenDeltas(layers[i + 1]);
         }
 
-        // calculate new weights in the network
-        // here backprop algorithm is used, we calculate output corrections first
-        for (int i = 0; i < numberOfOutputs; ++i) {
-            neurons[outputLayer][i].calculateCorrections(i);
+        // calculate corrections of all layers weights
+        layers[0].calculateChanges(inputVector, learningRate);
+        for (int i = 1; i <= outputLayer; ++i) {
+            layers[i].calculateChanges(layers[i - 1].getOutputs(), learningRate);
+        }
+        if (metrics != null) {
+            metrics.recordLearning(forwardEnd - start, System.nanoTime() - forwardEnd, 1);
+        }
+    }
+
+    /**
+     * moves changes of weights calculated by a worker network to this network
+     * @param worker network created by createWorker()
+     * @param scale factor multiplying added changes
+     */
+    void addChanges(Network worker, double scale) {
+        for (int i = 0; i < layers.length; ++i) {
+            layers[i].addChanges(worker.layers[i], scale);
+        }
+    }
+
+    /**
+     * Update weights values shared with other worker networks with changes calculated by this worker
+     * @param owner network which weights are shared by this worker
+     */
+    void validateSharedLearning(Network owner) {
+        for (int i = 0; i < layers.length; ++i) {
+            layers[i].correctSharedWeights(owner.layers[i]);
         }
-        // then we calculate corrections to all layers weights starting from the one closest to output layer
-        for (int i = outputLayer - 1; i >= 0; --i)
-            for (int j = 0; j < numberOfNeuronsPerLayer; ++j) {
-                neurons[i][j].calculateCorrections(j);
-            }
     }
 
     /**
      * Update weights values with previously calculated changes
      */
     public void validateLearning() {
-        // update values
-        for (int i = 0; i < numberOfOutputs; ++i) {
-            neurons[outputLayer][i].correctWeights();
+        for (Layer layer : layers) {
+            layer.correctWeights();
+        }
+    }
+
+    /**
+     * trains network on a whole batch of samples at once and updates weights with changes averaged over the batch
+     * @param inputVectors input values given to the network, one vector per sample
+     * @param learningPatterns vectors of correct output values, one per sample
+     */
+    public void learnBatch(double[][] inputVectors, int[][] learningPatterns) {
+        learnBatch(inputVectors, learningPatterns, inputVectors.length);
+    }
+
+    /**
+     * @see Network#learnBatch(double[][], int[][])
+     * @param batchSize number of samples from the beginning of given arrays that form the batch
+     */
+    public void learnBatch(double[][] inputVectors, int[][] learningPatterns, int batchSize) {
+        // calculate network's output for all samples
+        long start = (metrics != null) ? System.nanoTime() : 0L;
+        propagateBatch(inputVectors, batchSize);
+        long forwardEnd = (metrics != null) ? System.nanoTime() : 0L;
+
+        // backprop - output deltas first, then deltas of hidden layers
+        layers[outputLayer].calculateBatchOutputDeltas(learningPatterns, batchSize);
+        for (int i = outputLayer - 1; i >= 0; --i) {
+            layers[i].calculateBatchHiddenDeltas(layers[i + 1], batchSize);
+        }
+
+        // accumulate changes and apply them once for the whole batch
+        layers[0].calculateBatchChanges(batchInput, batchSize, learningRate);
+        for (int i = 1; i <= outputLayer; ++i) {
+            layers[i].calculateBatchChanges(layers[i - 1].getBatchOutputs(), batchSize, learningRate);
+        }
+        validateLearning();
+        if (metrics != null) {
+            metrics.recordLearning(forwardEnd - start, System.nanoTime() - forwardEnd, batchSize);
+        }
+    }
+
+    /**
+     * stores topology, weights and optimizer state of the network in binary file.
+     * File is replaced at once, so that an interrupted save never damages previous model
+     * @param path path of the file
+     */
+    public void save(Path path) throws IOException {
+        long size = HEADER_SIZE + (long) layers.length * LAYER_DESCRIPTION_SIZE;
+        for (Layer layer : layers) {
+            // fails before anything is written if optimizer cannot be stored
+            getOptimizerType(layer.getOptimizer());
+            // weights and optimizer state of all layers are followed by indices of pruned weights of all layers
+            size += getStateSize(layer) + (long) getNumberOfPrunedWeights(layer) * Integer.BYTES;
         }
-        for (int i = outputLayer - 1; i >= 0; --i)
-            for (int j = 0; j < numberOfNeuronsPerLayer; ++j) {
-                neurons[i][j].correctWeights();
+        Path temporary = Paths.get(path + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(numberOfInputs).putInt(numberOfOutputs)
+                    .putInt(outputLayer).putInt(numberOfNeuronsPerLayer).putInt(completedEpochs).putDouble(learningRate);
+            for (Layer layer : layers) {
+                buffer.putInt(getNeuronType(layer.getNeuron())).putInt(layer.getSize()).putInt(layer.getNumberOfInputs())
+                        .putInt(getOptimizerType(layer.getOptimizer())).putInt(getNeuronFlags(layer.getNeuron()))
+                        .putInt(getNumberOfPrunedWeights(layer)).putDouble(getAlpha(layer.getNeuron()));
+                for (double parameter : getOptimizerParameters(layer.getOptimizer())) {
+                    buffer.putDouble(parameter);
+                }
+                buffer.putLong(layer.getSteps());
             }
+            DoubleBuffer values = buffer.asDoubleBuffer();
+            for (Layer layer : layers) {
+                layer.saveState(values);
+            }
+            IntBuffer pruned = buffer.position(buffer.position() + values.position() * Double.BYTES).asIntBuffer();
+            for (Layer layer : layers) {
+                if (layer.getPrunedWeights() != null) {
+                    pruned.put(layer.getPrunedWeights());
+                }
+            }
+            // data has to be on disk before the file replaces the old model, otherwise a crash may leave an empty model
+            buffer.force();
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * reads network stored by save()
+     * @param path path of the file
+     * @return network
+     * @throws IOException if the file is not a model file of the current version or is truncated
+     */
+    public static Network load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                throw new IOException("Truncated model file: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Unsupported model file: " + path);
+            }
+            IntBuffer header = buffer.asIntBuffer();
+            Network network = new Network(header.get(), header.get(), header.get(), header.get(), new Random(0));
+            network.completedEpochs = header.get();
+            buffer.position(buffer.position() + 5 * Integer.BYTES);
+            network.learningRate = buffer.getDouble();
+            long size = HEADER_SIZE + (long) network.layers.length * LAYER_DESCRIPTION_SIZE;
+            if (fileSize < size) {
+                throw new IOException("Truncated model file: " + path);
+            }
+            int[] prunedCounts = new int[network.layers.length];
+            for (int l = 0; l < network.layers.length; ++l) {
+                Layer layer = network.layers[l];
+                int neuronType = buffer.getInt();
+                if (neuronType != getNeuronType(layer.getNeuron()) || buffer.getInt() != layer.getSize()
+                        || buffer.getInt() != layer.getNumberOfInputs()) {
+                    throw new IOException("Inconsistent topology in model file: " + path);
+                }
+                int optimizerType = buffer.getInt();
+                int flags = buffer.getInt();
+                prunedCounts[l] = buffer.getInt();
+                layer.setNeuron(createNeuron(neuronType, buffer.getDouble(), flags));
+                double[] parameters = new double[4];
+                for (int i = 0; i < parameters.length; ++i) {
+                    parameters[i] = buffer.getDouble();
+                }
+                layer.setOptimizer(createOptimizer(optimizerType, parameters, path));
+                layer.setSteps(buffer.getLong());
+                size += getStateSize(layer) + (long) prunedCounts[l] * Integer.BYTES;
+            }
+            if (fileSize < size) {
+                throw new IOException("Truncated model file: " + path);
+            }
+            DoubleBuffer values = buffer.asDoubleBuffer();
+            for (Layer layer : network.layers) {
+                layer.loadState(values);
+            }
+            IntBuffer pruned = buffer.position(buffer.position() + values.position() * Double.BYTES).asIntBuffer();
+            for (int l = 0; l < network.layers.length; ++l) {
+                if (prunedCounts[l] > 0) {
+                    int[] indices = new int[prunedCounts[l]];
+                    pruned.get(indices);
+                    network.layers[l].setPrunedWeights(indices);
+                }
+            }
+            return network;
+        }
+    }
+
+    /**
+     * @return number of bytes taken in model file by weights and optimizer state of given layer
+     */
+    private static long getStateSize(Layer layer) {
+        return (1L + layer.getOptimizer().getStateSize()) * layer.getWeights().length * Double.BYTES;
+    }
+
+    private static int getNeuronType(Neuron neuron) {
+        return (neuron instanceof LinearNeuron) ? LINEAR_NEURON : SIGMOIDAL_NEURON;
+    }
+
+    private static int getNeuronFlags(Neuron neuron) {
+        return (neuron.isConstAddendEnabled() ? CONST_INPUT_FLAG : 0)
+                | (neuron instanceof FastSigmoidalNeuron ? FAST_ACTIVATION_FLAG : 0);
+    }
+
+    private static Neuron createNeuron(int type, double alpha, int flags) {
+        boolean constAddend = (flags & CONST_INPUT_FLAG) != 0;
+        if (type == LINEAR_NEURON) {
+            return new LinearNeuron(alpha, constAddend);
+        }
+        return ((flags & FAST_ACTIVATION_FLAG) != 0) ? new FastSigmoidalNeuron(alpha, constAddend)
+                : new SigmoidalNeuron(alpha, constAddend);
+    }
+
+    private static int getNumberOfPrunedWeights(Layer layer) {
+        return (layer.getPrunedWeights() != null) ? layer.getPrunedWeights().length : 0;
+    }
+
+    private static int getOptimizerType(Optimizer optimizer) throws IOException {
+        if (optimizer instanceof MomentumOptimizer) {
+            return MOMENTUM_OPTIMIZER;
+        }
+        if (optimizer instanceof AdamOptimizer) {
+            return ADAM_OPTIMIZER;
+        }
+        if (optimizer instanceof RmsPropOptimizer) {
+            return RMSPROP_OPTIMIZER;
+        }
+        throw new IOException("Optimizer cannot be stored in model file: " + optimizer.getClass().getName());
+    }
+
+    /**
+     * @return four parameters of optimizer stored in model file, unused ones equal to 0.0
+     */
+    private static double[] getOptimizerParameters(Optimizer optimizer) {
+        if (optimizer instanceof AdamOptimizer) {
+            AdamOptimizer adam = (AdamOptimizer) optimizer;
+            return new double[] {adam.getStepSize(), adam.getBeta1(), adam.getBeta2(), adam.getEpsilon()};
+        }
+        if (optimizer instanceof RmsPropOptimizer) {
+            RmsPropOptimizer rmsProp = (RmsPropOptimizer) optimizer;
+            return new double[] {rmsProp.getStepSize(), rmsProp.getDecay(), rmsProp.getEpsilon(), 0.0};
+        }
+        return new double[] {((MomentumOptimizer) optimizer).getMomentum(), 0.0, 0.0, 0.0};
+    }
+
+    private static Optimizer createOptimizer(int type, double[] parameters, Path path) throws IOException {
+        switch (type) {
+            case MOMENTUM_OPTIMIZER:
+                return new MomentumOptimizer(parameters[0]);
+            case ADAM_OPTIMIZER:
+                return new AdamOptimizer(parameters[0], parameters[1], parameters[2], parameters[3]);
+            case RMSPROP_OPTIMIZER:
+                return new RmsPropOptimizer(parameters[0], parameters[1], parameters[2]);
+            default:
+                throw new IOException("Unsupported optimizer in model file: " + path);
+        }
+    }
+
+    private static double getAlpha(Neuron neuron) {
+        return (neuron instanceof LinearNeuron) ? ((LinearNeuron) neuron).getAlpha() : ((SigmoidalNeuron) neuron).getAlpha();
     }
-}
\ No newline at end of file
+}
@@ -1,4 +1,9 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Class performing training sessions on neural network
@@ -15,10 +20,95 @@ public class NetworkController {
     private int falsePositives;
     private int undetectedFrauds;
 
-    private final double weight = 3.0;
+    // number of checked transactions of each kind
+    private int legitimateTransactions;
+    private int frauds;
+
+    public static final double DEFAULT_WEIGHT = 3.0;
+
+    // cost of undetected fraud relative to false positive
+    private double weight = DEFAULT_WEIGHT;
+
+    public static final double DEFAULT_THRESHOLD = 0.5;
+
+    // output value from which transaction is classified as fraud
+    private double threshold = DEFAULT_THRESHOLD;
+
+    // trainer splitting batches across threads, used only when training with more than one thread
+    private ParallelTrainer trainer;
+
+    // buffers for input sets of a single batch
+    private double[][] batchInputs;
+    private int[][] batchOutputs;
+
+    // buffer for output of classified input set
+    private double[] classificationOutput;
+
+    // file the network is stored in during training, null if checkpoints are disabled
+    private Path checkpointPath;
+    private int checkpointInterval;
+
+    // source of rows used by training sessions, null if sessions read consecutive rows from the beginning of input
+    private EpochSampler sampler;
+
+    // receives training times and errors, null if they are not measured
+    private Metrics metrics;
 
     public NetworkController(Network network) {
         this.network = network;
+        this.classificationOutput = new double[network.getNumberOfOutputs()];
+    }
+
+    /**
+     * enables storing trained network in a file, so that training can be resumed after interruption
+     * by loading the network with Network.load() and running remaining epochs
+     * @param path path of checkpoint file
+     * @param interval number of training sessions between checkpoints
+     */
+    public void setCheckpoint(Path path, int interval) {
+        this.checkpointPath = path;
+        this.checkpointInterval = interval;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    /**
+     * @param weight cost of undetected fraud relative to false positive, used to calculate error count
+     */
+    public void setWeight(double weight) {
+        this.weight = weight;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * @param threshold output value from which transaction is classified as fraud
+     * @see NetworkController#sweepThresholds(InputParser)
+     */
+    public void setThreshold(double threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * makes training sessions use rows chosen by given sampler from its data set instead of consecutive rows
+     * read from the beginning of input parser
+     * @param sampler sampler of training rows, null to read input parser again
+     */
+    public void setSampler(EpochSampler sampler) {
+        this.sampler = sampler;
+    }
+
+    /**
+     * enables measuring training sessions of controlled network
+     * @param metrics metrics receiving times and errors, null to stop measuring
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+        network.setMetrics(metrics);
     }
 
     /**
@@ -27,7 +117,7 @@ public class NetworkController {
      * @return classified value
      */
     public int interpretOutput(double [] output) {
-        return output[0] >= 0.5 ? 1 : 0;
+        return output[0] >= threshold ? 1 : 0;
     }
 
     /**
@@ -36,14 +126,73 @@ public class NetworkController {
      * @param inputParser training set container
      */
     public void teachUsingQuality(int samplesPerEpoch, InputParser inputParser) {
+        teachUsingQuality(samplesPerEpoch, 1, inputParser);
+    }
+
+    /**
+     * @see NetworkController#teachUsingQuality(int, InputParser)
+     * @param batchSize number of input sets used to calculate a single weights update
+     */
+    public void teachUsingQuality(int samplesPerEpoch, int batchSize, InputParser inputParser) {
         initializeMembers();
         do {
             resetMembers();
-            runTrainingSession(samplesPerEpoch, inputParser);
+            runTrainingSession(samplesPerEpoch, batchSize, inputParser);
             checkValidationSetResults(inputParser);
         } while ((currentQuality < recentQuality) || (currentErrorCount < recentErrorCount));
     }
 
+    /**
+     * method trains network on rows preceding validation set and stops when weighted error on validation set
+     * has not improved for a given number of evaluations. Weights giving the lowest error are restored at the end.
+     * Without a sampler (see setSampler()) every epoch reads the input parser from its beginning, so it trains
+     * on the same leading rows in the same order; a shuffling sampler gives every epoch different rows
+     * @param samplesPerEpoch number of input sets that should be used during training session,
+     *                        limited to rows preceding validation set
+     * @param maxEpochs maximal number of epochs
+     * @param patience number of evaluations without improvement after which training stops
+     * @param evaluationInterval number of epochs between evaluations
+     * @param validationSamples number of randomly chosen validation rows used by every evaluation;
+     *                          the rows are chosen once, so that errors of all evaluations are comparable
+     * @param validationSet held-out rows of the same data as provided by inputParser;
+     *                      sampler, if set, should be limited to rows preceding it
+     * @param inputParser training set container
+     * @return weighted error rate of restored network on the chosen validation rows
+     */
+    public double teachUsingEarlyStopping(int samplesPerEpoch, int maxEpochs, int patience, int evaluationInterval,
+                                          int validationSamples, ValidationSet validationSet, InputParser inputParser) {
+        initializeMembers();
+        int trainingSamples = Math.min(samplesPerEpoch, validationSet.getFirstRow());
+        Network best = network.copy();
+        double bestErrorRate = Double.MAX_VALUE;
+        int evaluationsWithoutImprovement = 0;
+        validationSet.drawSubset(validationSamples);
+        // every snapshot reuses thread-local buffers of the previous one, so evaluations allocate only a copy of weights
+        InferenceModel snapshot = null;
+        for (int epoch = 1; epoch <= maxEpochs && evaluationsWithoutImprovement < patience; ++epoch) {
+            runTrainingSession(trainingSamples, 1, inputParser);
+            if (epoch % evaluationInterval == 0) {
+                snapshot = new InferenceModel(network, snapshot);
+                ValidationSet.Result result = validationSet.evaluate(snapshot, validationSamples, this::interpretOutput);
+                double errorRate = result.getErrorRate(weight);
+                if (metrics != null) {
+                    metrics.recordError(result.getFalsePositives() + result.getUndetectedFrauds() * weight);
+                }
+                if (errorRate < bestErrorRate) {
+                    bestErrorRate = errorRate;
+                    best.copyState(network);
+                    evaluationsWithoutImprovement = 0;
+                } else {
+                    ++evaluationsWithoutImprovement;
+                }
+            }
+        }
+        if (bestErrorRate < Double.MAX_VALUE) {
+            network.copyState(best);
+        }
+        return bestErrorRate;
+    }
+
     /**
      * method runs a specified number of training sessions for the network
      * @param samplesPerEpoch number of input sets that should be used during training session
@@ -51,9 +200,130 @@ public class NetworkController {
      * @param inputParser training set container
      */
     public void teachUsingEpochs(int samplesPerEpoch, int epochs, InputParser inputParser) {
+        teachUsingEpochs(samplesPerEpoch, epochs, 1, inputParser);
+    }
+
+    /**
+     * @see NetworkController#teachUsingEpochs(int, int, InputParser)
+     * @param batchSize number of input sets used to calculate a single weights update
+     */
+    public void teachUsingEpochs(int samplesPerEpoch, int epochs, int batchSize, InputParser inputParser) {
+        teachUsingEpochs(samplesPerEpoch, epochs, batchSize, 1, inputParser);
+    }
+
+    /**
+     * @see NetworkController#teachUsingEpochs(int, int, int, InputParser)
+     * @param threads number of threads every batch is split across; more than one requires batches
+     *                of more than one input set, since sequential training updates weights after every sample
+     * @throws IllegalArgumentException if several threads are requested for batches of a single input set
+     */
+    public void teachUsingEpochs(int samplesPerEpoch, int epochs, int batchSize, int threads, InputParser inputParser) {
+        checkParallelBatchSize(batchSize, threads);
         initializeMembers();
+        trainer = (threads > 1) ? new ParallelTrainer(network, threads) : null;
+        try {
+            for (int epoch = 0; epoch < epochs; ++epoch) {
+                runTrainingSession(samplesPerEpoch, batchSize, inputParser);
+            }
+        } finally {
+            if (trainer != null) {
+                trainer.shutdown();
+                trainer = null;
+            }
+        }
+    }
+
+    /**
+     * method prunes the network and trains it further with pruned weights kept at zero, so that the remaining weights
+     * can make up for the removed ones
+     * @param pruner pruner choosing removed weights
+     * @param samplesPerEpoch number of input sets that should be used during training session
+     * @param epochs number of training sessions
+     * @param inputParser training set container
+     * @return number of pruned weights
+     */
+    public int pruneAndFineTune(Pruner pruner, int samplesPerEpoch, int epochs, InputParser inputParser) {
+        int pruned = pruner.prune(network);
+        teachUsingEpochs(samplesPerEpoch, epochs, inputParser);
+        return pruned;
+    }
+
+    /**
+     * method trains network asynchronously, every thread updates weights without locks using its own share of samples
+     * @param samplesPerEpoch number of input sets that should be used during training session
+     * @param epochs number of epochs
+     * @param threads number of threads
+     * @param inputParser training set container
+     */
+    public void teachUsingHogwild(int samplesPerEpoch, int epochs, int threads, InputParser inputParser) {
+        initializeMembers();
+        prepareBatchBuffers(samplesPerEpoch);
+        inputParser.begin();
+        for (int i = 0; i < samplesPerEpoch; ++i) {
+            inputParser.nextLine();
+            System.arraycopy(inputParser.getParameters(), 0, batchInputs[i], 0, network.getNumberOfInputs());
+            System.arraycopy(inputParser.getOutput(), 0, batchOutputs[i], 0, network.getNumberOfOutputs());
+        }
+        new HogwildTrainer(network, threads).learn(batchInputs, batchOutputs, epochs);
         for (int epoch = 0; epoch < epochs; ++epoch) {
-            runTrainingSession(samplesPerEpoch, inputParser);
+            network.completeEpoch();
+        }
+        if (checkpointPath != null) {
+            saveCheckpoint();
+        }
+    }
+
+    /**
+     * method trains two copies of the network, sequentially and asynchronously, and displays their test results
+     * and training times. Trained network is not modified
+     * @param samplesPerEpoch number of input sets that should be used during training session
+     * @param epochs number of epochs
+     * @param threads number of threads used by asynchronous training
+     * @param trainingParser training set container
+     * @param testParser test set container
+     */
+    public void printHogwildComparison(int samplesPerEpoch, int epochs, int threads, InputParser trainingParser, InputParser testParser) {
+        NetworkController sequential = new NetworkController(network.copy());
+        long start = System.nanoTime();
+        sequential.teachUsingEpochs(samplesPerEpoch, epochs, trainingParser);
+        long sequentialTime = System.nanoTime() - start;
+
+        NetworkController hogwild = new NetworkController(network.copy());
+        start = System.nanoTime();
+        hogwild.teachUsingHogwild(samplesPerEpoch, epochs, threads, trainingParser);
+        long hogwildTime = System.nanoTime() - start;
+
+        System.out.println("Uczenie sekwencyjne (" + sequentialTime / 1000000 + " ms):");
+        sequential.test(testParser);
+        System.out.println("Uczenie Hogwild, watki: " + threads + " (" + hogwildTime / 1000000 + " ms):");
+        hogwild.test(testParser);
+    }
+
+    /**
+     * method measures time of training sessions run with increasing number of threads
+     * and displays speedup relative to a single thread. Trained network is not modified
+     * @param samplesPerEpoch number of input sets that should be used during training session
+     * @param batchSize number of input sets used to calculate a single weights update
+     * @param maxThreads maximal number of threads
+     * @param inputParser training set container
+     * @throws IllegalArgumentException if maxThreads is more than one and batches have a single input set
+     */
+    public void printSpeedupCurve(int samplesPerEpoch, int batchSize, int maxThreads, InputParser inputParser) {
+        checkParallelBatchSize(batchSize, maxThreads);
+        final int epochs = 5;
+        DecimalFormat df = new DecimalFormat("#.##");
+        double singleThreadTime = 0.0;
+        for (int threads = 1; threads <= maxThreads; threads = (threads < maxThreads && 2 * threads > maxThreads) ? maxThreads : 2 * threads) {
+            NetworkController controller = new NetworkController(network.copy());
+            // warm up run, so that measured time does not include compilation
+            controller.teachUsingEpochs(samplesPerEpoch, 1, batchSize, threads, inputParser);
+            long start = System.nanoTime();
+            controller.teachUsingEpochs(samplesPerEpoch, epochs, batchSize, threads, inputParser);
+            double time = (System.nanoTime() - start) / 1e6 / epochs;
+            if (threads == 1) {
+                singleThreadTime = time;
+            }
+            System.out.println("Watki: " + threads + ", czas epoki: " + df.format(time) + " ms, przyspieszenie: " + df.format(singleThreadTime / time));
         }
     }
 
@@ -68,8 +338,139 @@ public class NetworkController {
         DecimalFormat df = new DecimalFormat("#.##");
         System.out.println("Liczba false positives: " + falsePositives);
         System.out.println("Liczba undetected: " + undetectedFrauds);
-        System.out.println("Trafnosc dla poprawnych transakcji: " + df.format(100.0 * (1 - falsePositives / 284315.0d)) + "%");
-        System.out.println("Trafnosc dla fraudow: " + df.format(100 * (1 - undetectedFrauds / 492.0d)) + "%");
+        System.out.println("Trafnosc dla poprawnych transakcji: " + df.format(100.0 * (1 - falsePositives / (double) legitimateTransactions)) + "%");
+        System.out.println("Trafnosc dla fraudow: " + df.format(100.0 * (1 - undetectedFrauds / (double) frauds)) + "%");
+    }
+
+    /**
+     * @return number of legitimate transactions classified as frauds by the last test or validation
+     */
+    public int getFalsePositives() {
+        return falsePositives;
+    }
+
+    /**
+     * @return number of frauds classified as legitimate transactions by the last test or validation
+     */
+    public int getUndetectedFrauds() {
+        return undetectedFrauds;
+    }
+
+    /**
+     * method scores test set once and displays area under ROC curve, results of the current threshold
+     * and the threshold giving the lowest weighted error, which may then be set with setThreshold()
+     * @param inputParser input data source
+     * @return scores of the test set, from which results of any other threshold can be read
+     */
+    public ThresholdSweep sweepThresholds(InputParser inputParser) {
+        inputParser.begin();
+        ThresholdSweep sweep = ThresholdSweep.score(new InferenceModel(network), inputParser);
+        double best = sweep.getBestThreshold(weight);
+        DecimalFormat df = new DecimalFormat("#.####");
+        System.out.println("Transakcje poprawne: " + sweep.getNumberOfLegitimateTransactions() + ", fraudy: " + sweep.getNumberOfFrauds());
+        System.out.println("AUC: " + df.format(sweep.getAuc()));
+        System.out.println("Prog " + threshold + ": false positives: " + sweep.getFalsePositives(threshold)
+                + ", undetected: " + sweep.getUndetectedFrauds(threshold));
+        System.out.println("Najlepszy prog " + best + ": false positives: " + sweep.getFalsePositives(best)
+                + ", undetected: " + sweep.getUndetectedFrauds(best));
+        return sweep;
+    }
+
+    /**
+     * method compares fraud finding results of reduced precision models with the double precision network
+     * on the same test set: for every model it shows number of false positives, undetected frauds
+     * and transactions classified differently than by the network
+     * @param inputParser input data source
+     * @param models compared models, usually exported from the controlled network
+     */
+    public void printModelComparison(InputParser inputParser, Classifier... models) {
+        int[] modelFalsePositives = new int[models.length];
+        int[] modelUndetectedFrauds = new int[models.length];
+        int[] disagreements = new int[models.length];
+        double[] output = new double[network.getNumberOfOutputs()];
+        resetMembers();
+        inputParser.begin();
+        while (inputParser.nextLine()) {
+            int expected = inputParser.getOutput()[0];
+            int classification = getClassification(inputParser.getParameters());
+            if (expected != classification) {
+                if (classification == 0) {
+                    ++undetectedFrauds;
+                } else {
+                    ++falsePositives;
+                }
+            }
+            for (int m = 0; m < models.length; ++m) {
+                models[m].classify(inputParser.getParameters(), output);
+                int modelClassification = interpretOutput(output);
+                if (modelClassification != classification) {
+                    ++disagreements[m];
+                }
+                if (expected != modelClassification) {
+                    if (modelClassification == 0) {
+                        ++modelUndetectedFrauds[m];
+                    } else {
+                        ++modelFalsePositives[m];
+                    }
+                }
+            }
+        }
+        System.out.println("Siec (double): false positives: " + falsePositives + ", undetected: " + undetectedFrauds);
+        for (int m = 0; m < models.length; ++m) {
+            System.out.println(models[m].getClass().getSimpleName() + ": false positives: " + modelFalsePositives[m]
+                    + ", undetected: " + modelUndetectedFrauds[m] + ", rozne od sieci: " + disagreements[m]);
+        }
+    }
+
+    /**
+     * method compares sparse model of the pruned network with dense model of the network before pruning:
+     * it shows density of weights, scoring time of both models and their fraud finding results
+     * @param inputParser input data source
+     * @param dense model of the network before pruning
+     * @param sparse model of the controlled, pruned network
+     */
+    public void printPruningReport(InputParser inputParser, InferenceModel dense, SparseInferenceModel sparse) {
+        // transactions are read once, so that measured times do not include parsing
+        List<double[]> rows = new ArrayList<>();
+        inputParser.begin();
+        while (inputParser.nextLine()) {
+            rows.add(inputParser.getParameters().clone());
+        }
+        long denseTime = measureScoring(rows, dense);
+        long sparseTime = measureScoring(rows, sparse);
+        DecimalFormat df = new DecimalFormat("#.##");
+        System.out.println("Gestosc wag: " + df.format(100.0 * sparse.getDensity()) + "% (" + sparse.getNumberOfWeights() + ")");
+        System.out.println("Czas oceny: gesty " + denseTime / 1000 + " us, rzadki " + sparseTime / 1000
+                + " us, przyspieszenie: " + df.format((double) denseTime / sparseTime) + "x");
+        printModelComparison(inputParser, dense, sparse);
+    }
+
+    /**
+     * @return the shortest of several times of scoring all given transactions with given model, in nanoseconds
+     */
+    private static long measureScoring(List<double[]> rows, Classifier model) {
+        double[] output = new double[model.getNumberOfOutputs()];
+        double sum = 0.0;
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 10; ++run) {
+            long start = System.nanoTime();
+            for (double[] row : rows) {
+                model.classify(row, output);
+                sum += output[0];
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        // sum is used, so that JIT cannot remove scoring
+        return sum == Double.MAX_VALUE ? best + 1 : best;
+    }
+
+    /**
+     * batch of a single input set is learned sequentially, so it cannot be split across threads
+     */
+    private static void checkParallelBatchSize(int batchSize, int threads) {
+        if (threads > 1 && batchSize == 1) {
+            throw new IllegalArgumentException("Training with " + threads + " threads requires batch size greater than 1");
+        }
     }
 
     /**
@@ -80,6 +481,11 @@ public class NetworkController {
         inputParser.begin();
         while (inputParser.nextLine()) {
             int classification = getClassification(inputParser.getParameters());
+            if (inputParser.getOutput()[0] == 0) {
+                ++legitimateTransactions;
+            } else {
+                ++frauds;
+            }
             if (inputParser.getOutput()[0] != classification) {
                 ++currentQuality;
                 if (classification == 0) {
@@ -90,19 +496,108 @@ public class NetworkController {
             }
         }
         currentErrorCount = falsePositives + undetectedFrauds * weight;
+        if (metrics != null) {
+            metrics.recordError(currentErrorCount);
+        }
     }
 
     /**
      *
      * @param numberOfSamples number of input sets that should be used to train network
+     * @param batchSize number of input sets used to calculate a single weights update
      * @param inputParser source of input data
      */
-    private void runTrainingSession(int numberOfSamples, InputParser inputParser) {
-        inputParser.begin();
-        for (int i = 0; i < numberOfSamples; ++i) {
+    private void runTrainingSession(int numberOfSamples, int batchSize, InputParser inputParser) {
+        long start = System.nanoTime();
+        if (sampler != null) {
+            sampler.beginEpoch();
+        } else {
+            inputParser.begin();
+        }
+        if (batchSize == 1 && sampler == null) {
+            for (int i = 0; i < numberOfSamples; ++i) {
+                if (metrics != null) {
+                    long parseStart = System.nanoTime();
+                    inputParser.nextLine();
+                    metrics.recordParsing(System.nanoTime() - parseStart);
+                } else {
+                    inputParser.nextLine();
+                }
+                network.learn(inputParser.getParameters(), inputParser.getOutput());
+                network.validateLearning();
+            }
+        } else {
+            prepareBatchBuffers(batchSize);
+            for (int i = 0; i < numberOfSamples; i += batchSize) {
+                int samplesInBatch = Math.min(batchSize, numberOfSamples - i);
+                long parseStart = System.nanoTime();
+                for (int b = 0; b < samplesInBatch; ++b) {
+                    readSample(inputParser, b);
+                }
+                if (metrics != null) {
+                    metrics.recordParsing(System.nanoTime() - parseStart);
+                }
+                if (batchSize == 1) {
+                    network.learn(batchInputs[0], batchOutputs[0]);
+                    network.validateLearning();
+                } else if (trainer != null) {
+                    trainer.learnBatch(batchInputs, batchOutputs, samplesInBatch);
+                } else {
+                    network.learnBatch(batchInputs, batchOutputs, samplesInBatch);
+                }
+            }
+        }
+        finishTrainingSession(numberOfSamples, System.nanoTime() - start);
+    }
+
+    /**
+     * copies next training sample to batch buffers
+     * @param inputParser source of consecutive samples, used if there is no sampler
+     * @param b index of sample in batch
+     */
+    private void readSample(InputParser inputParser, int b) {
+        if (sampler != null) {
+            int row = sampler.next();
+            sampler.getDataset().getParameters(row, batchInputs[b]);
+            batchOutputs[b][0] = sampler.getDataset().getOutput(row);
+        } else {
             inputParser.nextLine();
-            network.learn(inputParser.getParameters(), inputParser.getOutput());
-            network.validateLearning();
+            System.arraycopy(inputParser.getParameters(), 0, batchInputs[b], 0, network.getNumberOfInputs());
+            System.arraycopy(inputParser.getOutput(), 0, batchOutputs[b], 0, network.getNumberOfOutputs());
+        }
+    }
+
+    /**
+     * count finished training session and store network in checkpoint file if it is time to do so
+     * @param numberOfSamples number of samples used by the session
+     * @param nanos duration of the session
+     */
+    private void finishTrainingSession(int numberOfSamples, long nanos) {
+        network.completeEpoch();
+        if (metrics != null) {
+            metrics.recordEpoch(nanos, numberOfSamples);
+        }
+        if (checkpointPath != null && network.getCompletedEpochs() % checkpointInterval == 0) {
+            saveCheckpoint();
+        }
+    }
+
+    private void saveCheckpoint() {
+        try {
+            network.save(checkpointPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * allocate buffers for batch input sets unless they already have the required size
+     * @param batchSize number of input sets in a batch
+     */
+    private void prepareBatchBuffers(int batchSize) {
+        if (batchInputs == null || batchInputs.length != batchSize) {
+            batchInputs = new double[batchSize][network.getNumberOfInputs()];
+            batchOutputs = new int[batchSize][network.getNumberOfOutputs()];
         }
     }
 
@@ -116,6 +611,8 @@ public class NetworkController {
         recentErrorCount = Double.MAX_VALUE;
         falsePositives = 0;
         undetectedFrauds = 0;
+        legitimateTransactions = 0;
+        frauds = 0;
     }
 
     /**
@@ -124,6 +621,8 @@ public class NetworkController {
     private void resetMembers() {
         falsePositives = 0;
         undetectedFrauds = 0;
+        legitimateTransactions = 0;
+        frauds = 0;
         recentQuality = currentQuality;
         currentQuality = 0;
         recentErrorCount = currentErrorCount;
@@ -136,7 +635,7 @@ public class NetworkController {
      * @return classified value
      */
     public int getClassification(double[] input) {
-        double[] output = network.classify(input);
-        return interpretOutput(output);
+        network.classify(input, classificationOutput);
+        return interpretOutput(classificationOutput);
     }
 }
\ No newline at end of file
@@ -0,0 +1,153 @@
+/**
+ *  standardization of transaction parameters: every parameter is shifted by its mean and divided by its standard
+ *  deviation. Both are calculated in a single streaming pass with Welford's algorithm, which stays accurate
+ *  for large values such as unscaled amounts. Network is trained on standardized parameters, then the statistics
+ *  are folded into weights of its first layer, so that exported network takes raw parameters at no extra cost
+ */
+public class Normalizer {
+    // number of added rows
+    private long count;
+
+    // running means of parameters
+    private double[] means;
+
+    // running sums of squared differences from the mean
+    private double[] squares;
+
+    /**
+     * @param numberOfParameters number of parameters of a row
+     */
+    public Normalizer(int numberOfParameters) {
+        this.means = new double[numberOfParameters];
+        this.squares = new double[numberOfParameters];
+    }
+
+    /**
+     * calculates statistics of all rows of given parser
+     * @param inputParser source of raw data, without normalizer
+     * @return normalizer
+     */
+    public static Normalizer fit(InputParser inputParser) {
+        inputParser.begin();
+        Normalizer normalizer = null;
+        while (inputParser.nextLine()) {
+            if (normalizer == null) {
+                normalizer = new Normalizer(inputParser.getParameters().length);
+            }
+            normalizer.add(inputParser.getParameters());
+        }
+        if (normalizer == null) {
+            throw new IllegalStateException("No data to normalize");
+        }
+        return normalizer;
+    }
+
+    /**
+     * updates statistics with a single row
+     * @param parameters raw parameters of the row
+     */
+    public void add(double[] parameters) {
+        ++count;
+        for (int i = 0; i < means.length; ++i) {
+            double difference = parameters[i] - means[i];
+            means[i] += difference / count;
+            squares[i] += difference * (parameters[i] - means[i]);
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public int getNumberOfParameters() {
+        return means.length;
+    }
+
+    public double getMean(int parameter) {
+        return means[parameter];
+    }
+
+    /**
+     * @return standard deviation of given parameter, 1.0 if the parameter is constant so that it is only shifted
+     */
+    public double getStandardDeviation(int parameter) {
+        double deviation = Math.sqrt(squares[parameter] / count);
+        return (deviation > 0.0) ? deviation : 1.0;
+    }
+
+    /**
+     * standardizes parameters of a single row in place
+     * @param parameters raw parameters
+     */
+    public void normalize(double[] parameters) {
+        for (int i = 0; i < means.length; ++i) {
+            parameters[i] = (parameters[i] - means[i]) / getStandardDeviation(i);
+        }
+    }
+
+    /**
+     * standardizes all rows of a data set in place, so that samplers and validation sets reading it directly
+     * get standardized parameters
+     * @param dataset data set with raw parameters
+     */
+    public void normalize(Dataset dataset) {
+        for (int i = 0; i < means.length; ++i) {
+            double[] column = dataset.getColumn(i);
+            double mean = means[i];
+            double deviation = getStandardDeviation(i);
+            for (int row = 0; row < dataset.getNumberOfRows(); ++row) {
+                column[row] = (column[row] - mean) / deviation;
+            }
+        }
+    }
+
+    /**
+     * creates network taking raw parameters and giving the same outputs as given network for standardized ones.
+     * Weights of the first layer are divided by standard deviations and means are moved to weights of const input,
+     * which gets enabled. Previous weights kept by momentum optimizer are folded the same way, so that training
+     * of the folded network continues with the same move; state of other optimizers is cleared
+     * @param network network trained on standardized parameters
+     * @return network for export
+     */
+    public Network fold(Network network) {
+        Network folded = network.copy();
+        Layer first = folded.getLayers()[0];
+        boolean constAddend = first.getNeuron().isConstAddendEnabled();
+        if (first.getOptimizer() instanceof MomentumOptimizer) {
+            foldWeights(first, first.getState(), constAddend);
+        } else {
+            first.resetState();
+        }
+        foldWeights(first, first.getWeights(), constAddend);
+        first.setNeuron(withConstInput(first.getNeuron()));
+        return folded;
+    }
+
+    /**
+     * @param layer first layer of the network
+     * @param weights weights of the layer or values of the same layout, e.g. previous weights
+     * @param constAddend tells whether const input of the layer is enabled, otherwise its weights are ignored
+     */
+    private void foldWeights(Layer layer, double[] weights, boolean constAddend) {
+        int inputs = layer.getNumberOfInputs();
+        for (int row = 0; row < layer.getWeights().length; row += layer.getStride()) {
+            double constWeight = constAddend ? weights[row + inputs] : 0.0;
+            for (int i = 0; i < inputs; ++i) {
+                weights[row + i] /= getStandardDeviation(i);
+                constWeight -= weights[row + i] * means[i];
+            }
+            weights[row + inputs] = constWeight;
+        }
+    }
+
+    /**
+     * @return neuron of the same kind and steepness with const input enabled
+     */
+    private static Neuron withConstInput(Neuron neuron) {
+        if (neuron instanceof LinearNeuron) {
+            return new LinearNeuron(((LinearNeuron) neuron).getAlpha(), true);
+        }
+        double alpha = ((SigmoidalNeuron) neuron).getAlpha();
+        return (neuron instanceof FastSigmoidalNeuron) ? new FastSigmoidalNeuron(alpha, true) : new SigmoidalNeuron(alpha, true);
+    }
+}
@@ -0,0 +1,240 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ *  classifier learning from labelled transactions while it is being used. Feedback events are queued
+ *  and a background thread trains a shadow copy of the network with them, sample by sample.
+ *  Every few samples, and whenever the queue gets empty, a new InferenceModel snapshot of the shadow network
+ *  is published by an atomic reference swap, so classification never waits for training and never sees
+ *  partially updated weights
+ */
+public class OnlineLearner implements Classifier {
+
+    // marks end of events in queue
+    private static final Event END = new Event(null, null);
+
+    // network trained by background thread only
+    private Network shadow;
+
+    // model used by classifying threads
+    private AtomicReference<InferenceModel> model;
+
+    private BlockingQueue<Event> events;
+
+    // number of learned samples between publications of new model
+    private int publishInterval;
+
+    private AtomicLong learnedSamples = new AtomicLong();
+    private AtomicLong publishedModels = new AtomicLong();
+    private AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    private Thread thread;
+
+    /**
+     * Usage: OnlineLearner model events [port]
+     * Learns from labelled transactions read from a CSV file, or from a TCP connection on given local port
+     * if events argument is "-", and stores updated network in the model file
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.out.println("Uzycie: OnlineLearner model zdarzenia|- [port]");
+            return;
+        }
+        Path modelPath = Paths.get(args[0]);
+        OnlineLearner learner = new OnlineLearner(Network.load(modelPath), 1024, 100);
+        learner.start();
+        long submitted;
+        if (args[1].equals("-")) {
+            int port = args.length > 2 ? Integer.parseInt(args[2]) : 9200;
+            try (ServerSocketChannel server = ServerSocketChannel.open()) {
+                server.bind(new InetSocketAddress("localhost", port));
+                System.out.println("Oczekiwanie na polaczenie, port: " + port);
+                try (SocketChannel channel = server.accept();
+                     InputParser inputParser = new InputParser(channel, ';', false)) {
+                    submitted = learner.consume(inputParser);
+                }
+            }
+        } else {
+            try (InputParser inputParser = new InputParser(args[1], ';', true)) {
+                submitted = learner.consume(inputParser);
+            }
+        }
+        learner.stop();
+        learner.getNetwork().save(modelPath);
+        System.out.println("Zdarzenia: " + submitted + ", opublikowane modele: " + learner.getPublishedModels());
+    }
+
+    /**
+     * @param network network used as the starting point, it is copied and not modified afterwards
+     * @param queueCapacity maximal number of events waiting for training
+     * @param publishInterval number of learned samples between publications of new model
+     */
+    public OnlineLearner(Network network, int queueCapacity, int publishInterval) {
+        this.shadow = network.copy();
+        this.model = new AtomicReference<>(new InferenceModel(shadow));
+        this.events = new ArrayBlockingQueue<>(queueCapacity);
+        this.publishInterval = publishInterval;
+    }
+
+    /**
+     * starts background training thread
+     */
+    public void start() {
+        thread = new Thread(this::learnEvents, "online-learner");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * waits until all queued events are learned, publishes final model and stops background thread
+     */
+    public void stop() throws InterruptedException {
+        enqueue(END);
+        thread.join();
+        if (failure.get() != null) {
+            throw new IllegalStateException("Online learning failed", failure.get());
+        }
+    }
+
+    /**
+     * queues labelled transaction for training unless the queue is full
+     * @param parameters parameters of transaction, copied by the method
+     * @param label correct output values
+     * @return false if event was dropped because training does not keep up with events
+     */
+    public boolean submit(double[] parameters, int[] label) {
+        return events.offer(new Event(parameters.clone(), label.clone()));
+    }
+
+    /**
+     * queues all remaining transactions of given parser, waiting for space in the queue when needed
+     * @param inputParser source of labelled transactions, e.g. file or socket channel
+     * @return number of queued events
+     */
+    public long consume(InputParser inputParser) throws InterruptedException {
+        long count = 0;
+        while (inputParser.nextLine() && enqueue(new Event(inputParser.getParameters().clone(), inputParser.getOutput().clone()))) {
+            ++count;
+        }
+        return count;
+    }
+
+    /**
+     * @return latest published model
+     */
+    public InferenceModel getModel() {
+        return model.get();
+    }
+
+    /**
+     * @return network trained in background; it may be used only after stop()
+     */
+    public Network getNetwork() {
+        return shadow;
+    }
+
+    public long getLearnedSamples() {
+        return learnedSamples.get();
+    }
+
+    public long getPublishedModels() {
+        return publishedModels.get();
+    }
+
+    @Override
+    public int getNumberOfInputs() {
+        return shadow.getNumberOfInputs();
+    }
+
+    @Override
+    public int getNumberOfOutputs() {
+        return shadow.getNumberOfOutputs();
+    }
+
+    /**
+     * classifies input with the latest published model
+     * @see Classifier#classify(double[], double[])
+     */
+    @Override
+    public void classify(double[] inputVector, double[] outputVector) {
+        model.get().classify(inputVector, outputVector);
+    }
+
+    /**
+     * background thread - trains shadow network with queued events and publishes its snapshots
+     */
+    private void learnEvents() {
+        int unpublished = 0;
+        try {
+            while (true) {
+                Event event = events.poll();
+                if (event == null) {
+                    // queue is empty, so there is time to publish what has been learned so far
+                    if (unpublished > 0) {
+                        publish();
+                        unpublished = 0;
+                    }
+                    event = events.take();
+                }
+                if (event == END) {
+                    break;
+                }
+                shadow.learn(event.parameters, event.label);
+                shadow.validateLearning();
+                learnedSamples.incrementAndGet();
+                if (++unpublished == publishInterval) {
+                    publish();
+                    unpublished = 0;
+                }
+            }
+            if (unpublished > 0) {
+                publish();
+            }
+        } catch (InterruptedException e) {
+            failure.compareAndSet(null, e);
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    /**
+     * waits for space in the queue as long as background thread works
+     * @return false if background thread failed and event was not queued
+     */
+    private boolean enqueue(Event event) throws InterruptedException {
+        while (!events.offer(event, 100, TimeUnit.MILLISECONDS)) {
+            if (failure.get() != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void publish() {
+        // new snapshot copies weights, but classifying threads keep using their scratch buffers
+        model.set(new InferenceModel(shadow, model.get()));
+        publishedModels.incrementAndGet();
+    }
+
+    /**
+     * labelled transaction
+     */
+    private static class Event {
+        private double[] parameters;
+        private int[] label;
+
+        Event(double[] parameters, int[] label) {
+            this.parameters = parameters;
+            this.label = label;
+        }
+    }
+}
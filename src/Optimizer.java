@@ -0,0 +1,25 @@
+/**
+ *  rule of correcting weights of a layer with changes accumulated by back propagation. Optimizers keep no state
+ *  themselves, so one instance may be used by many layers and threads: state of every weight (e.g. its moments)
+ *  is kept by the layer in a single flat array, getStateSize() blocks of as many values as there are weights
+ *  @see Layer
+ */
+public interface Optimizer {
+
+    /**
+     * @return number of state values kept per weight
+     */
+    int getStateSize();
+
+    /**
+     * corrects weights of all neurons of a layer in a single pass, updates their state and clears changes.
+     * Changes are the negative gradient already multiplied by network's learning rate
+     * @param weights weights of the layer stored row-major
+     * @param state optimizer state, getStateSize() * weights.length values
+     * @param changes accumulated changes of weights
+     * @param stride length of a single row of weights
+     * @param columns number of corrected weights at the beginning of every row
+     * @param step number of this correction, starting from 1
+     */
+    void correct(double[] weights, double[] state, double[] changes, int stride, int columns, long step);
+}
@@ -0,0 +1,100 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *  class training network on batches of samples split across several threads.
+ *  Every worker calculates changes of weights for its part of the batch against the same, unchanged weights,
+ *  then changes are summed, averaged and applied to the network with its usual momentum update
+ */
+public class ParallelTrainer {
+    private Network network;
+    private ExecutorService executor;
+    private List<Worker> workers;
+
+    /**
+     * @param network network that will be trained
+     * @param threads number of worker threads
+     */
+    public ParallelTrainer(Network network, int threads) {
+        this.network = network;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "parallel-trainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; ++i) {
+            workers.add(new Worker(network.createWorker()));
+        }
+    }
+
+    /**
+     * trains network on a batch of samples and updates weights once
+     * @param inputVectors input values given to the network, one vector per sample
+     * @param learningPatterns vectors of correct output values, one per sample
+     * @param batchSize number of samples from the beginning of given arrays that form the batch
+     */
+    public void learnBatch(double[][] inputVectors, int[][] learningPatterns, int batchSize) {
+        int threads = workers.size();
+        for (int i = 0; i < threads; ++i) {
+            workers.get(i).assign(inputVectors, learningPatterns, batchSize * i / threads, batchSize * (i + 1) / threads);
+        }
+        try {
+            for (Future<Void> result : executor.invokeAll(workers)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Training interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Training failed", e.getCause());
+        }
+        // reduce changes in fixed order, so that results do not depend on threads scheduling
+        for (Worker worker : workers) {
+            network.addChanges(worker.network, 1.0 / batchSize);
+        }
+        network.validateLearning();
+    }
+
+    /**
+     * stops worker threads
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * task calculating changes of weights for a range of samples
+     */
+    private static class Worker implements Callable<Void> {
+        private Network network;
+        private double[][] inputVectors;
+        private int[][] learningPatterns;
+        private int first;
+        private int last;
+
+        Worker(Network network) {
+            this.network = network;
+        }
+
+        void assign(double[][] inputVectors, int[][] learningPatterns, int first, int last) {
+            this.inputVectors = inputVectors;
+            this.learningPatterns = learningPatterns;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        public Void call() {
+            for (int i = first; i < last; ++i) {
+                network.learn(inputVectors[i], learningPatterns[i]);
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ *  magnitude pruning of a trained network. Weights of small absolute value are set to zero, either all below
+ *  a threshold or all but the largest ones of every neuron, and may be kept at zero while the network is fine-tuned.
+ *  Pruned network is scored by SparseInferenceModel, which skips zero weights
+ */
+public class Pruner {
+    // weights with absolute value lower than threshold are pruned, used if keptPerNeuron is 0
+    private double threshold;
+
+    // number of weights with the largest absolute value kept by every neuron
+    private int keptPerNeuron;
+
+    private Pruner(double threshold, int keptPerNeuron) {
+        this.threshold = threshold;
+        this.keptPerNeuron = keptPerNeuron;
+    }
+
+    /**
+     * Usage: Pruner model test-data [threshold|top-k] [value] [fine-tuning data] [fine-tuning epochs]
+     * Prunes network stored in model file and compares sparse model with the dense one
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Uzycie: Pruner model dane-testowe [threshold|top-k] [wartosc] [dane-douczania] [epoki]");
+            return;
+        }
+        Network network = Network.load(Paths.get(args[0]));
+        String mode = args.length > 2 ? args[2] : "top-k";
+        Pruner pruner = mode.equals("threshold") ? belowThreshold(args.length > 3 ? Double.parseDouble(args[3]) : 0.05)
+                : keepLargest(args.length > 3 ? Integer.parseInt(args[3]) : 10);
+        InferenceModel dense = new InferenceModel(network);
+        NetworkController controller = new NetworkController(network);
+        if (args.length > 4) {
+            int epochs = args.length > 5 ? Integer.parseInt(args[5]) : 10;
+            controller.pruneAndFineTune(pruner, 400, epochs, new InputParser(Dataset.open(args[4], ';', true)));
+        } else {
+            System.out.println("Usuniete wagi: " + pruner.prune(network));
+        }
+        controller.printPruningReport(new InputParser(Dataset.open(args[1], ';', true)), dense, new SparseInferenceModel(network));
+    }
+
+    /**
+     * @param threshold minimal absolute value of kept weight
+     * @return pruner removing all weights with absolute value lower than threshold
+     */
+    public static Pruner belowThreshold(double threshold) {
+        return new Pruner(threshold, 0);
+    }
+
+    /**
+     * @param keptPerNeuron number of kept weights of every neuron
+     * @return pruner keeping only weights with the largest absolute value in every neuron
+     */
+    public static Pruner keepLargest(int keptPerNeuron) {
+        return new Pruner(0.0, keptPerNeuron);
+    }
+
+    /**
+     * sets chosen weights of all layers to zero and makes further training keep them at zero;
+     * const input's weight is never pruned
+     * @param network pruned network
+     * @return number of pruned weights
+     */
+    public int prune(Network network) {
+        int count = 0;
+        for (Layer layer : network.getLayers()) {
+            int[] pruned = choose(layer);
+            layer.setPrunedWeights(pruned);
+            count += pruned.length;
+        }
+        return count;
+    }
+
+    /**
+     * lets all weights of the network be trained again, pruned weights stay zero until they are changed by training
+     * @param network pruned network
+     */
+    public static void release(Network network) {
+        for (Layer layer : network.getLayers()) {
+            layer.setPrunedWeights(null);
+        }
+    }
+
+    /**
+     * @return indices of pruned weights of given layer in ascending order
+     */
+    private int[] choose(Layer layer) {
+        double[] weights = layer.getWeights();
+        int inputs = layer.getNumberOfInputs();
+        int stride = layer.getStride();
+        int[] pruned = new int[weights.length];
+        int count = 0;
+        double[] magnitudes = new double[inputs];
+        for (int row = 0; row < weights.length; row += stride) {
+            double rowThreshold = threshold;
+            if (keptPerNeuron > 0) {
+                if (keptPerNeuron >= inputs) {
+                    continue;
+                }
+                for (int i = 0; i < inputs; ++i) {
+                    magnitudes[i] = Math.abs(weights[row + i]);
+                }
+                Arrays.sort(magnitudes);
+                // weights equal to the smallest kept magnitude are kept as well
+                rowThreshold = magnitudes[inputs - keptPerNeuron];
+            }
+            for (int i = row; i < row + inputs; ++i) {
+                if (Math.abs(weights[i]) < rowThreshold) {
+                    pruned[count++] = i;
+                }
+            }
+        }
+        return Arrays.copyOf(pruned, count);
+    }
+}
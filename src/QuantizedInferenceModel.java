@@ -0,0 +1,129 @@
+/**
+ *  read-only snapshot of a trained network with weights quantized to 8-bit integers.
+ *  Each layer has its own scale: weight = scale * quantized value, where scale maps the largest absolute
+ *  weight of the layer's inputs to 127. Weights of const input, which are often much larger, are not part
+ *  of the scale and are kept in single precision, as activations are
+ *  @see InferenceModel
+ */
+public class QuantizedInferenceModel implements Classifier {
+    private static final int MAX_QUANTIZED = 127;
+
+    // types of neurons of each layer
+    private final Neuron[] neurons;
+
+    // quantized weights of inputs of each layer stored row-major, without weights of const input
+    private final byte[][] weights;
+
+    // value of a single quantization step of each layer
+    private final float[] scales;
+
+    // weights of const input of each layer, null if const input is disabled
+    private final float[][] constWeights;
+
+    private final int[] sizes;
+    private final int[] inputs;
+
+    // size of the widest layer (including input vector)
+    private final int maxWidth;
+
+    private final ThreadLocal<float[]> scratch;
+
+    /**
+     * creates quantized snapshot of current weights of given network
+     * @param network trained network
+     */
+    public QuantizedInferenceModel(Network network) {
+        Layer[] layers = network.getLayers();
+        this.neurons = new Neuron[layers.length];
+        this.weights = new byte[layers.length][];
+        this.scales = new float[layers.length];
+        this.constWeights = new float[layers.length][];
+        this.sizes = new int[layers.length];
+        this.inputs = new int[layers.length];
+        int width = network.getNumberOfInputs();
+        for (int l = 0; l < layers.length; ++l) {
+            double[] layerWeights = layers[l].getWeights();
+            int count = layers[l].getNumberOfInputs();
+            int stride = layers[l].getStride();
+            double maxWeight = 0.0;
+            for (int row = 0; row < layerWeights.length; row += stride) {
+                for (int i = row; i < row + count; ++i) {
+                    maxWeight = Math.max(maxWeight, Math.abs(layerWeights[i]));
+                }
+            }
+            double scale = (maxWeight > 0.0) ? maxWeight / MAX_QUANTIZED : 1.0;
+            neurons[l] = layers[l].getNeuron();
+            scales[l] = (float) scale;
+            sizes[l] = layers[l].getSize();
+            inputs[l] = count;
+            weights[l] = new byte[sizes[l] * count];
+            constWeights[l] = neurons[l].isConstAddendEnabled() ? new float[sizes[l]] : null;
+            for (int n = 0, row = 0; n < sizes[l]; ++n, row += stride) {
+                for (int i = 0; i < count; ++i) {
+                    weights[l][n * count + i] = (byte) Math.round(layerWeights[row + i] / scale);
+                }
+                if (constWeights[l] != null) {
+                    constWeights[l][n] = (float) layerWeights[row + count];
+                }
+            }
+            width = Math.max(width, sizes[l]);
+        }
+        this.maxWidth = width;
+        this.scratch = ThreadLocal.withInitial(() -> new float[2 * maxWidth]);
+    }
+
+    @Override
+    public int getNumberOfInputs() {
+        return inputs[0];
+    }
+
+    @Override
+    public int getNumberOfOutputs() {
+        return sizes[sizes.length - 1];
+    }
+
+    /**
+     * calculates network's output using thread-local scratch buffer
+     * @see Classifier#classify(double[], double[])
+     */
+    @Override
+    public void classify(double[] inputVector, double[] outputVector) {
+        float[] buffer = scratch.get();
+        // activations of consecutive layers are written alternately to both halves of scratch buffer
+        for (int i = 0; i < inputs[0]; ++i) {
+            buffer[i] = (float) inputVector[i];
+        }
+        int inputOffset = 0;
+        for (int l = 0; l < weights.length; ++l) {
+            int outputOffset = maxWidth - inputOffset;
+            calculateLayer(l, buffer, inputOffset, outputOffset);
+            inputOffset = outputOffset;
+        }
+        for (int i = 0; i < getNumberOfOutputs(); ++i) {
+            outputVector[i] = buffer[inputOffset + i];
+        }
+    }
+
+    /**
+     * calculates output values of all neurons of a single layer; products are summed in quantized units
+     * and scaled once per neuron
+     */
+    private void calculateLayer(int l, float[] buffer, int inputOffset, int outputOffset) {
+        byte[] layerWeights = weights[l];
+        float[] layerConstWeights = constWeights[l];
+        Neuron neuron = neurons[l];
+        float scale = scales[l];
+        int count = inputs[l];
+        for (int n = 0, row = 0; n < sizes[l]; ++n, row += count) {
+            float sum = 0.0f;
+            for (int i = 0; i < count; ++i) {
+                sum += layerWeights[row + i] * buffer[inputOffset + i];
+            }
+            sum *= scale;
+            if (layerConstWeights != null) {
+                sum += layerConstWeights[n];
+            }
+            buffer[outputOffset + n] = (float) neuron.activate(sum);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ *  RMSProp optimizer: every change is divided by the root of the running mean of squares of changes
+ *  of the same weight, so weights with large changes move slower. State of a weight is that running mean
+ */
+public class RmsPropOptimizer implements Optimizer {
+    public static final double DEFAULT_STEP_SIZE = 0.001;
+    public static final double DEFAULT_DECAY = 0.9;
+    public static final double DEFAULT_EPSILON = 1e-8;
+
+    // move of a weight which change equals its running root mean square
+    private final double stepSize;
+
+    // decay rate of the running mean
+    private final double decay;
+
+    // added to the root of the running mean to avoid division by zero
+    private final double epsilon;
+
+    public RmsPropOptimizer() {
+        this(DEFAULT_STEP_SIZE, DEFAULT_DECAY, DEFAULT_EPSILON);
+    }
+
+    /**
+     * @param stepSize move of a weight which change equals its running root mean square
+     * @param decay decay rate of the running mean of squared changes
+     * @param epsilon value added to the root of the running mean
+     */
+    public RmsPropOptimizer(double stepSize, double decay, double epsilon) {
+        this.stepSize = stepSize;
+        this.decay = decay;
+        this.epsilon = epsilon;
+    }
+
+    public double getStepSize() {
+        return stepSize;
+    }
+
+    public double getDecay() {
+        return decay;
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    @Override
+    public int getStateSize() {
+        return 1;
+    }
+
+    /**
+     * @see Optimizer#correct(double[], double[], double[], int, int, long)
+     */
+    @Override
+    public void correct(double[] weights, double[] state, double[] changes, int stride, int columns, long step) {
+        for (int row = 0; row < weights.length; row += stride) {
+            for (int i = row; i < row + columns; ++i) {
+                double change = changes[i];
+                double squared = decay * state[i] + (1.0 - decay) * change * change;
+                state[i] = squared;
+                weights[i] += stepSize * change / (Math.sqrt(squared) + epsilon);
+                changes[i] = 0.0;
+            }
+        }
+    }
+}
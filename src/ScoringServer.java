@@ -0,0 +1,356 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *  HTTP server scoring transactions with a trained network. Connections are handled by a pool of threads,
+ *  which only parse requests and wait for results. Transactions of concurrent requests are gathered by a single
+ *  batching thread into micro-batches - a batch is closed when it is full or when its oldest request has waited
+ *  for the latency budget - and every batch is scored in one pass through the network.
+ *  POST /score takes CSV lines of transaction parameters and returns "score;class" lines,
+ *  GET /stats returns latency percentiles
+ */
+public class ScoringServer {
+    private static final int QUEUE_CAPACITY = 4096;
+
+    // maximal time a connection thread waits for scores of its request
+    private static final long REQUEST_TIMEOUT = TimeUnit.SECONDS.toNanos(10);
+
+    // parser buffer of requests without known length, and the largest one allocated for a request
+    private static final int DEFAULT_BUFFER_SIZE = 4096;
+    private static final int MAX_BUFFER_SIZE = 1 << 16;
+
+    private Network network;
+    private NetworkController controller;
+
+    private HttpServer server;
+    private ExecutorService connections;
+    private Thread batcher;
+
+    private BlockingQueue<Request> requests = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    // set by stop(), after it no request is queued for scoring
+    private volatile boolean stopped;
+
+    // maximal number of transactions in a batch
+    private int maxBatchSize;
+    // maximal time the oldest request of a batch waits for other requests
+    private long latencyBudget;
+
+    // time from receiving request to sending its scores
+    private LatencyHistogram latency = new LatencyHistogram();
+    private LongAdder batches = new LongAdder();
+    private LongAdder scoredTransactions = new LongAdder();
+
+    /**
+     * Usage: ScoringServer model [port] [batch size] [latency budget in microseconds]
+     */
+    public static void main(String[] args) throws IOException {
+        // without TCP_NODELAY small responses wait for delayed acknowledgements, adding about 40 ms to every request.
+        // JDK server reads the property once, when the first server of the JVM is created
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        if (args.length < 1) {
+            System.out.println("Uzycie: ScoringServer model [port] [rozmiar paczki] [budzet opoznienia us]");
+            return;
+        }
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+        int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        long budget = args.length > 3 ? Long.parseLong(args[3]) : 500;
+        ScoringServer scoringServer = new ScoringServer(Network.load(Paths.get(args[0])), port, batchSize,
+                TimeUnit.MICROSECONDS.toNanos(budget));
+        System.out.println("Serwer ocen dziala, port: " + scoringServer.getPort());
+    }
+
+    /**
+     * starts server listening on loopback interface. Low latency requires TCP_NODELAY, which is enabled only
+     * if the JVM is started with -Dsun.net.httpserver.nodelay=true or main() is used to start the server
+     * @param network trained network, used only by the server afterwards
+     * @param port port number, 0 chooses any free port
+     * @param maxBatchSize maximal number of transactions scored together
+     * @param latencyBudget maximal time in nanoseconds a request waits for other requests to fill the batch
+     */
+    public ScoringServer(Network network, int port, int maxBatchSize, long latencyBudget) throws IOException {
+        this.network = network;
+        this.controller = new NetworkController(network);
+        this.maxBatchSize = maxBatchSize;
+        this.latencyBudget = latencyBudget;
+        this.batcher = new Thread(this::scoreBatches, "scoring-batcher");
+        // like connection threads, the batcher does not keep the JVM alive if stop() is not called
+        batcher.setDaemon(true);
+        batcher.start();
+        // connection threads mostly wait for the batcher, so the pool grows with the number of concurrent requests
+        this.connections = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "scoring-connection");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.createContext("/score", this::handleScore);
+        server.createContext("/stats", exchange -> respond(exchange, 200, getStats()));
+        server.setExecutor(connections);
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return number of handled requests and percentiles of their latency
+     */
+    public String getStats() {
+        long count = batches.sum();
+        return String.format(Locale.ROOT, "requests: %d%ntransactions: %d%nbatches: %d%nmean batch size: %.2f%n"
+                        + "p50: %d us%np99: %d us%np99.9: %d us%n",
+                latency.getCount(), scoredTransactions.sum(), count, count == 0 ? 0.0 : (double) scoredTransactions.sum() / count,
+                latency.getQuantile(0.5) / 1000, latency.getQuantile(0.99) / 1000, latency.getQuantile(0.999) / 1000);
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * stops accepting requests and stops all threads; requests waiting for scores are answered with an error
+     */
+    public void stop() {
+        stopped = true;
+        server.stop(0);
+        batcher.interrupt();
+        try {
+            batcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failQueued();
+        connections.shutdown();
+        // connection threads which passed the check of the flag before it was set may still have queued requests
+        failQueued();
+    }
+
+    /**
+     * connection thread - parses transactions of a request, passes them to batcher and waits for scores
+     */
+    private void handleScore(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        if (!exchange.getRequestMethod().equals("POST")) {
+            respond(exchange, 405, "");
+            return;
+        }
+        List<double[]> rows = new ArrayList<>();
+        try (InputParser inputParser = new InputParser(Channels.newChannel(exchange.getRequestBody()), ';', false,
+                getBufferSize(exchange))) {
+            inputParser.setLabelled(false);
+            while (inputParser.nextLine()) {
+                if (inputParser.getParameters().length != network.getNumberOfInputs()) {
+                    respond(exchange, 400, "Expected " + network.getNumberOfInputs() + " parameters per line\n");
+                    return;
+                }
+                rows.add(inputParser.getParameters().clone());
+            }
+        } catch (RuntimeException e) {
+            respond(exchange, 400, "Malformed request\n");
+            return;
+        }
+        if (rows.isEmpty()) {
+            respond(exchange, 400, "Empty request\n");
+            return;
+        }
+        Request request = new Request(rows.toArray(new double[0][]), start);
+        if (stopped) {
+            respond(exchange, 503, "Server stopped\n");
+            return;
+        }
+        try {
+            if (!requests.offer(request, latencyBudget, TimeUnit.NANOSECONDS)) {
+                respond(exchange, 503, "Overloaded\n");
+                return;
+            }
+            if (stopped && requests.remove(request)) {
+                // server was stopped while the request was queued and nobody is going to take it
+                respond(exchange, 503, "Server stopped\n");
+                return;
+            }
+            if (!request.done.await(REQUEST_TIMEOUT, TimeUnit.NANOSECONDS)) {
+                respond(exchange, 503, "Timeout\n");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 503, "Interrupted\n");
+            return;
+        }
+        if (request.error != null) {
+            respond(exchange, 503, request.error);
+            return;
+        }
+        StringBuilder response = new StringBuilder();
+        for (int i = 0; i < request.rows.length; ++i) {
+            response.append(request.scores[i]).append(';').append(request.classes[i]).append('\n');
+        }
+        respond(exchange, 200, response.toString());
+        latency.record(System.nanoTime() - start);
+    }
+
+    /**
+     * @return size of parser buffer holding the whole body of a typical request, which is only a few lines long
+     */
+    private static int getBufferSize(HttpExchange exchange) {
+        String length = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (length == null) {
+            return DEFAULT_BUFFER_SIZE;
+        }
+        try {
+            // one spare byte lets the parser see end of input without growing a full buffer
+            return (int) Math.min(Long.parseLong(length.trim()) + 1, MAX_BUFFER_SIZE);
+        } catch (NumberFormatException e) {
+            return DEFAULT_BUFFER_SIZE;
+        }
+    }
+
+    /**
+     * batching thread - gathers requests into batches and scores them. A batch which cannot be scored
+     * is answered with an error, so that its connection threads do not wait for it
+     */
+    private void scoreBatches() {
+        double[][] inputs = new double[maxBatchSize][];
+        double[][] outputs = new double[maxBatchSize][network.getNumberOfOutputs()];
+        List<Request> batch = new ArrayList<>();
+        Request pending = null;
+        try {
+            while (true) {
+                Request first = (pending != null) ? pending : requests.take();
+                pending = null;
+                batch.add(first);
+                int size = first.rows.length;
+                long deadline = first.arrival + latencyBudget;
+                while (size < maxBatchSize) {
+                    Request next = requests.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    if (size + next.rows.length > maxBatchSize) {
+                        // request does not fit, it starts the next batch
+                        pending = next;
+                        break;
+                    }
+                    batch.add(next);
+                    size += next.rows.length;
+                }
+                if (size > inputs.length) {
+                    // a single request larger than a batch is scored alone
+                    inputs = new double[size][];
+                    outputs = new double[size][network.getNumberOfOutputs()];
+                }
+                try {
+                    scoreBatch(batch, size, inputs, outputs);
+                    batches.increment();
+                    scoredTransactions.add(size);
+                } catch (RuntimeException e) {
+                    fail(batch, "Scoring failed\n");
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // server stopped, requests taken from the queue are not going to be scored
+            fail(batch, "Server stopped\n");
+            if (pending != null) {
+                fail(Collections.singletonList(pending), "Server stopped\n");
+            }
+        }
+    }
+
+    /**
+     * scores transactions of all requests of a batch and releases the requests
+     */
+    private void scoreBatch(List<Request> batch, int size, double[][] inputs, double[][] outputs) {
+        int row = 0;
+        for (Request request : batch) {
+            for (double[] parameters : request.rows) {
+                inputs[row++] = parameters;
+            }
+        }
+        network.classifyBatch(inputs, size, outputs);
+        row = 0;
+        for (Request request : batch) {
+            for (int i = 0; i < request.rows.length; ++i, ++row) {
+                request.scores[i] = outputs[row][0];
+                request.classes[i] = controller.interpretOutput(outputs[row]);
+            }
+        }
+        for (Request request : batch) {
+            request.done.countDown();
+        }
+    }
+
+    /**
+     * releases all requests left in the queue after the batcher has exited
+     */
+    private void failQueued() {
+        List<Request> queued = new ArrayList<>();
+        requests.drainTo(queued);
+        fail(queued, "Server stopped\n");
+    }
+
+    /**
+     * releases requests which are not going to be scored
+     * @param error response sent to their clients
+     */
+    private static void fail(List<Request> failed, String error) {
+        for (Request request : failed) {
+            request.error = error;
+            request.done.countDown();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] body = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    /**
+     * transactions of a single HTTP request
+     */
+    private static class Request {
+        private double[][] rows;
+        private double[] scores;
+        private int[] classes;
+        private long arrival;
+
+        // released by batcher when scores are ready or the request has failed
+        private CountDownLatch done = new CountDownLatch(1);
+
+        // response sent instead of scores, null if the request was scored
+        private String error;
+
+        Request(double[][] rows, long arrival) {
+            this.rows = rows;
+            this.scores = new double[rows.length];
+            this.classes = new int[rows.length];
+            this.arrival = arrival;
+        }
+    }
+}
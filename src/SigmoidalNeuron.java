@@ -5,30 +5,53 @@ import java.lang.Math;
  */
 public class SigmoidalNeuron extends Neuron {
 
-    //parameter of linear function used to calculate neuron's activate function
-    private static final double ALPHA = 2.5;
+    //default parameter of linear function used to calculate neuron's activate function
+    public static final double DEFAULT_ALPHA = 2.5;
+
+    private final double alpha;
+
+    /**
+     * @see Neuron#Neuron(boolean)
+     */
+    public SigmoidalNeuron() {
+        this(DEFAULT_ALPHA);
+    }
 
     /**
-     * @see Neuron#Neuron(Network, int, int, boolean)  
+     * @param alpha steepness of activation function
      */
-    public SigmoidalNeuron(Network network, int numberOfInputs, int layerNumber) {
-        super(network, numberOfInputs, layerNumber, false);
+    public SigmoidalNeuron(double alpha) {
+        this(alpha, false);
+    }
+
+    /**
+     * @param alpha steepness of activation function
+     * @param enableConstAddend indicates whether neuron should get additional constant input
+     */
+    public SigmoidalNeuron(double alpha, boolean enableConstAddend) {
+        super(enableConstAddend);
+        this.alpha = alpha;
+    }
+
+    public double getAlpha() {
+        return alpha;
     }
 
     /**
-     * @see Neuron#activate(double) 
+     * @see Neuron#activate(double)
      */
     @Override
     public double activate(double value) {
-        return (1.0 - Math.exp(-ALPHA * value)) / (1.0 + Math.exp(-ALPHA * value));
+        double exponent = Math.exp(-alpha * value);
+        return (1.0 - exponent) / (1.0 + exponent);
     }
 
     /**
-     * @see Neuron#activateDerivative(double) 
+     * @see Neuron#activateDerivative(double, double)
      */
     @Override
-    public double activateDerivative(double x) {
+    public double activateDerivative(double x, double output) {
 
-        return ALPHA * 0.5 * (1 - output * output);
+        return alpha * 0.5 * (1 - output * output);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,162 @@
+/**
+ *  read-only snapshot of a pruned network storing only non-zero weights. Every layer keeps them in CSR form:
+ *  values and input indices of consecutive neurons in two flat arrays, and the position where each neuron's
+ *  weights begin. Sums skip only products with zero weights, so for finite inputs outputs are the same
+ *  as of InferenceModel
+ *  @see InferenceModel
+ *  @see Pruner
+ */
+public class SparseInferenceModel implements Classifier {
+
+    // types of neurons of each layer
+    private final Neuron[] neurons;
+
+    // non-zero weights of each layer, neuron after neuron
+    private final double[][] values;
+
+    // input indices of non-zero weights
+    private final int[][] columns;
+
+    // index of the first non-zero weight of every neuron, and the number of all of them at the end
+    private final int[][] rowStarts;
+
+    // weights of const input of each layer, null if const input is disabled
+    private final double[][] constWeights;
+
+    private final int[] sizes;
+    private final int[] inputs;
+
+    // size of the widest layer (including input vector)
+    private final int maxWidth;
+
+    private final ThreadLocal<double[]> scratch;
+
+    /**
+     * creates snapshot of non-zero weights of given network
+     * @param network trained, usually pruned network
+     */
+    public SparseInferenceModel(Network network) {
+        Layer[] layers = network.getLayers();
+        this.neurons = new Neuron[layers.length];
+        this.values = new double[layers.length][];
+        this.columns = new int[layers.length][];
+        this.rowStarts = new int[layers.length][];
+        this.constWeights = new double[layers.length][];
+        this.sizes = new int[layers.length];
+        this.inputs = new int[layers.length];
+        int width = network.getNumberOfInputs();
+        for (int l = 0; l < layers.length; ++l) {
+            Layer layer = layers[l];
+            double[] weights = layer.getWeights();
+            int size = layer.getSize();
+            int count = layer.getNumberOfInputs();
+            int stride = layer.getStride();
+            int nonZero = 0;
+            for (int row = 0; row < weights.length; row += stride) {
+                for (int i = row; i < row + count; ++i) {
+                    nonZero += weights[i] != 0.0 ? 1 : 0;
+                }
+            }
+            neurons[l] = layer.getNeuron();
+            values[l] = new double[nonZero];
+            columns[l] = new int[nonZero];
+            rowStarts[l] = new int[size + 1];
+            constWeights[l] = neurons[l].isConstAddendEnabled() ? new double[size] : null;
+            for (int n = 0, row = 0, k = 0; n < size; ++n, row += stride) {
+                rowStarts[l][n] = k;
+                for (int i = 0; i < count; ++i) {
+                    if (weights[row + i] != 0.0) {
+                        values[l][k] = weights[row + i];
+                        columns[l][k] = i;
+                        ++k;
+                    }
+                }
+                if (constWeights[l] != null) {
+                    constWeights[l][n] = weights[row + count];
+                }
+            }
+            rowStarts[l][size] = nonZero;
+            sizes[l] = size;
+            inputs[l] = count;
+            width = Math.max(width, size);
+        }
+        this.maxWidth = width;
+        this.scratch = ThreadLocal.withInitial(() -> new double[2 * maxWidth]);
+    }
+
+    @Override
+    public int getNumberOfInputs() {
+        return inputs[0];
+    }
+
+    @Override
+    public int getNumberOfOutputs() {
+        return sizes[sizes.length - 1];
+    }
+
+    /**
+     * @return number of stored weights, without weights of const input
+     */
+    public int getNumberOfWeights() {
+        int count = 0;
+        for (double[] layerValues : values) {
+            count += layerValues.length;
+        }
+        return count;
+    }
+
+    /**
+     * @return share of stored weights among all weights of the dense network, without weights of const input
+     */
+    public double getDensity() {
+        long dense = 0;
+        for (int l = 0; l < sizes.length; ++l) {
+            dense += (long) sizes[l] * inputs[l];
+        }
+        return (double) getNumberOfWeights() / dense;
+    }
+
+    /**
+     * calculates network's output using thread-local scratch buffer
+     * @see Classifier#classify(double[], double[])
+     */
+    @Override
+    public void classify(double[] inputVector, double[] outputVector) {
+        double[] buffer = scratch.get();
+        // activations of consecutive layers are written alternately to both halves of scratch buffer
+        double[] input = inputVector;
+        int inputOffset = 0;
+        int outputOffset = 0;
+        int last = values.length - 1;
+        for (int l = 0; l <= last; ++l) {
+            double[] target = (l == last) ? outputVector : buffer;
+            int targetOffset = (l == last) ? 0 : outputOffset;
+            calculateLayer(l, input, inputOffset, target, targetOffset);
+            input = buffer;
+            inputOffset = outputOffset;
+            outputOffset = maxWidth - outputOffset;
+        }
+    }
+
+    /**
+     * calculates output values of all neurons of a single layer
+     */
+    private void calculateLayer(int l, double[] input, int inputOffset, double[] target, int targetOffset) {
+        double[] layerValues = values[l];
+        int[] layerColumns = columns[l];
+        int[] starts = rowStarts[l];
+        double[] layerConstWeights = constWeights[l];
+        int size = sizes[l];
+        for (int n = 0; n < size; ++n) {
+            double sum = 0.0;
+            for (int k = starts[n]; k < starts[n + 1]; ++k) {
+                sum += layerValues[k] * input[inputOffset + layerColumns[k]];
+            }
+            if (layerConstWeights != null) {
+                sum += layerConstWeights[n];
+            }
+            target[targetOffset + n] = sum;
+        }
+        neurons[l].activate(target, target, targetOffset, size);
+    }
+}
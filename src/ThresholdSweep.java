@@ -0,0 +1,224 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ *  evaluation of all classification thresholds at once. Scores of legitimate transactions and frauds are kept
+ *  in two sorted arrays, so the confusion matrix of any threshold is given by two binary searches
+ *  and all thresholds are visited by a single merge of both arrays.
+ *  Transaction is classified as fraud if its score is not lower than the threshold, so transaction with NaN score
+ *  is never classified as fraud, as by NetworkController.interpretOutput()
+ */
+public class ThresholdSweep {
+    // scores other than NaN, sorted
+    private double[] legitimateScores;
+    private double[] fraudScores;
+
+    // numbers of transactions with NaN score
+    private int unscoredLegitimateTransactions;
+    private int unscoredFrauds;
+
+    /**
+     * @param scores scores of transactions
+     * @param labels expected classes of transactions
+     * @param count number of transactions
+     */
+    public ThresholdSweep(double[] scores, byte[] labels, int count) {
+        int frauds = 0;
+        for (int i = 0; i < count; ++i) {
+            boolean fraud = labels[i] != 0;
+            frauds += fraud ? 1 : 0;
+            if (Double.isNaN(scores[i])) {
+                unscoredFrauds += fraud ? 1 : 0;
+                unscoredLegitimateTransactions += fraud ? 0 : 1;
+            }
+        }
+        legitimateScores = new double[count - frauds - unscoredLegitimateTransactions];
+        fraudScores = new double[frauds - unscoredFrauds];
+        for (int i = 0, l = 0, f = 0; i < count; ++i) {
+            if (Double.isNaN(scores[i])) {
+                continue;
+            }
+            if (labels[i] != 0) {
+                fraudScores[f++] = scores[i];
+            } else {
+                legitimateScores[l++] = scores[i];
+            }
+        }
+        Arrays.sort(legitimateScores);
+        Arrays.sort(fraudScores);
+    }
+
+    /**
+     * scores all remaining transactions of given parser once
+     * @param model scoring model
+     * @param inputParser source of labelled transactions
+     * @return sweep of scored transactions
+     */
+    public static ThresholdSweep score(Classifier model, InputParser inputParser) {
+        double[] scores = new double[1024];
+        byte[] labels = new byte[1024];
+        double[] output = new double[model.getNumberOfOutputs()];
+        int count = 0;
+        while (inputParser.nextLine()) {
+            if (count == scores.length) {
+                scores = Arrays.copyOf(scores, 2 * count);
+                labels = Arrays.copyOf(labels, 2 * count);
+            }
+            model.classify(inputParser.getParameters(), output);
+            scores[count] = output[0];
+            labels[count] = (byte) inputParser.getOutput()[0];
+            ++count;
+        }
+        return new ThresholdSweep(scores, labels, count);
+    }
+
+    public int getNumberOfLegitimateTransactions() {
+        return legitimateScores.length + unscoredLegitimateTransactions;
+    }
+
+    public int getNumberOfFrauds() {
+        return fraudScores.length + unscoredFrauds;
+    }
+
+    /**
+     * @param threshold classification threshold
+     * @return number of legitimate transactions classified as frauds
+     */
+    public int getFalsePositives(double threshold) {
+        return legitimateScores.length - countBelow(legitimateScores, threshold);
+    }
+
+    /**
+     * @param threshold classification threshold
+     * @return number of frauds classified as legitimate transactions
+     */
+    public int getUndetectedFrauds(double threshold) {
+        return countBelow(fraudScores, threshold) + unscoredFrauds;
+    }
+
+    /**
+     * @param weight cost of undetected fraud relative to false positive
+     * @return threshold with the lowest weighted number of errors; the lowest one if there are several
+     */
+    public double getBestThreshold(double weight) {
+        Sweep sweep = new Sweep();
+        double bestThreshold = Double.POSITIVE_INFINITY;
+        double bestError = Double.POSITIVE_INFINITY;
+        // thresholds are visited in ascending order, so the first one of equal errors is kept
+        while (sweep.next()) {
+            double error = sweep.falsePositives + weight * sweep.undetectedFrauds;
+            if (error < bestError) {
+                bestError = error;
+                bestThreshold = sweep.threshold;
+            }
+        }
+        // threshold above all scores classifies every transaction as legitimate
+        return (getNumberOfFrauds() * weight < bestError) ? Double.POSITIVE_INFINITY : bestThreshold;
+    }
+
+    /**
+     * @return area under ROC curve, i.e. probability that a random fraud gets higher score than a random
+     * legitimate transaction, ties counted as half; NaN score is lower than any other and equal to NaN
+     */
+    public double getAuc() {
+        if (getNumberOfLegitimateTransactions() == 0 || getNumberOfFrauds() == 0) {
+            return Double.NaN;
+        }
+        double pairs = (double) unscoredFrauds * unscoredLegitimateTransactions / 2.0;
+        int lower = 0;
+        int notHigher = 0;
+        for (double score : fraudScores) {
+            // legitimate scores in [lower, notHigher) are equal to the score, fraud scores come in ascending order
+            while (lower < legitimateScores.length && legitimateScores[lower] < score) {
+                ++lower;
+            }
+            notHigher = Math.max(notHigher, lower);
+            while (notHigher < legitimateScores.length && legitimateScores[notHigher] == score) {
+                ++notHigher;
+            }
+            pairs += unscoredLegitimateTransactions + lower + (notHigher - lower) / 2.0;
+        }
+        return pairs / ((double) getNumberOfLegitimateTransactions() * getNumberOfFrauds());
+    }
+
+    /**
+     * writes confusion matrix, precision, recall and false positive rate of every distinct threshold as CSV
+     * @param path path of the file
+     */
+    public void writeCurves(Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write("threshold;true positives;false positives;true negatives;false negatives;precision;recall;false positive rate\n");
+            Sweep sweep = new Sweep();
+            while (sweep.next()) {
+                int truePositives = getNumberOfFrauds() - sweep.undetectedFrauds;
+                int trueNegatives = getNumberOfLegitimateTransactions() - sweep.falsePositives;
+                int predicted = truePositives + sweep.falsePositives;
+                writer.write(String.format(Locale.ROOT, "%s;%d;%d;%d;%d;%.6f;%.6f;%.6f%n", sweep.threshold, truePositives,
+                        sweep.falsePositives, trueNegatives, sweep.undetectedFrauds,
+                        predicted == 0 ? 1.0 : (double) truePositives / predicted,
+                        getNumberOfFrauds() == 0 ? 0.0 : (double) truePositives / getNumberOfFrauds(),
+                        getNumberOfLegitimateTransactions() == 0 ? 0.0
+                                : (double) sweep.falsePositives / getNumberOfLegitimateTransactions()));
+            }
+        }
+    }
+
+    /**
+     * @return number of values lower than given one in a sorted array
+     */
+    private static int countBelow(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * walk through distinct scores in ascending order, using each one as a threshold
+     */
+    private class Sweep {
+        private int legitimateBelow;
+        private int fraudsBelow;
+        private double threshold;
+        private int falsePositives;
+        private int undetectedFrauds;
+
+        /**
+         * moves to the next distinct score
+         * @return false if there are no more scores
+         */
+        boolean next() {
+            boolean legitimateLeft = legitimateBelow < legitimateScores.length;
+            boolean fraudsLeft = fraudsBelow < fraudScores.length;
+            if (!legitimateLeft && !fraudsLeft) {
+                return false;
+            }
+            if (!fraudsLeft || (legitimateLeft && legitimateScores[legitimateBelow] < fraudScores[fraudsBelow])) {
+                threshold = legitimateScores[legitimateBelow];
+            } else {
+                threshold = fraudScores[fraudsBelow];
+            }
+            // transactions with score equal to threshold are classified as frauds
+            falsePositives = legitimateScores.length - legitimateBelow;
+            undetectedFrauds = fraudsBelow + unscoredFrauds;
+            while (legitimateBelow < legitimateScores.length && legitimateScores[legitimateBelow] == threshold) {
+                ++legitimateBelow;
+            }
+            while (fraudsBelow < fraudScores.length && fraudScores[fraudsBelow] == threshold) {
+                ++fraudsBelow;
+            }
+            return true;
+        }
+    }
+}
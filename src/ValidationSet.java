@@ -0,0 +1,197 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.ToIntFunction;
+
+/**
+ *  held-out part of a data set used to evaluate network during training. Rows are parsed once and kept row-major
+ *  in memory; evaluation is split across several threads and can be limited to a random subset of rows,
+ *  which stays the same until a new one is drawn, so that consecutive evaluations are comparable
+ */
+public class ValidationSet {
+    private int numberOfInputs;
+    private int numberOfRows;
+
+    // index of the first validation row in the source data; rows before it are left for training
+    private int firstRow;
+
+    private double[] inputs;
+    private byte[] outputs;
+
+    // order in which rows are evaluated, the current subset is at the beginning
+    private int[] order;
+    private Random random;
+
+    private ExecutorService executor;
+    private int threads;
+
+    /**
+     * @param dataset source data
+     * @param firstRow index of the first row of the validation set, following rows up to the end are used as well
+     * @param threads number of threads evaluation is split across
+     * @param seed seed of random generator choosing sampled subsets
+     */
+    public ValidationSet(Dataset dataset, int firstRow, int threads, long seed) {
+        this.numberOfInputs = dataset.getNumberOfParameters();
+        this.numberOfRows = dataset.getNumberOfRows() - firstRow;
+        this.firstRow = firstRow;
+        this.inputs = new double[numberOfRows * numberOfInputs];
+        this.outputs = new byte[numberOfRows];
+        this.order = new int[numberOfRows];
+        double[] parameters = new double[numberOfInputs];
+        for (int i = 0; i < numberOfRows; ++i) {
+            dataset.getParameters(firstRow + i, parameters);
+            System.arraycopy(parameters, 0, inputs, i * numberOfInputs, numberOfInputs);
+            outputs[i] = (byte) dataset.getOutput(firstRow + i);
+            order[i] = i;
+        }
+        this.random = new Random(seed);
+        this.threads = threads;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "validation");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * takes given fraction of rows from the end of parser's data as validation set
+     * @param inputParser source of data
+     * @param fraction part of rows held out for validation
+     * @param threads number of threads evaluation is split across
+     * @return validation set
+     */
+    public static ValidationSet holdOut(InputParser inputParser, double fraction, int threads) {
+        Dataset dataset = inputParser.getDataset();
+        if (dataset == null) {
+            inputParser.begin();
+            dataset = Dataset.fromParser(inputParser);
+        }
+        int validationRows = (int) (dataset.getNumberOfRows() * fraction);
+        return new ValidationSet(dataset, dataset.getNumberOfRows() - validationRows, threads, 1L);
+    }
+
+    /**
+     * @return number of rows preceding the validation set in the source data, which can be safely used for training
+     */
+    public int getFirstRow() {
+        return firstRow;
+    }
+
+    public int getNumberOfRows() {
+        return numberOfRows;
+    }
+
+    /**
+     * chooses a new random subset of rows evaluated by evaluate()
+     * @param sampleSize number of rows in the subset
+     */
+    public void drawSubset(int sampleSize) {
+        int samples = Math.min(sampleSize, numberOfRows);
+        // partial Fisher-Yates shuffle chooses a random subset in the first samples positions
+        for (int i = 0; i < samples; ++i) {
+            int j = i + random.nextInt(numberOfRows - i);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+    }
+
+    /**
+     * classifies validation rows with given model and counts wrong answers
+     * @param model evaluated model, used by several threads at once, so it must be a thread-safe snapshot
+     * @param sampleSize number of rows to evaluate, taken from the subset chosen by the last drawSubset(), or from
+     *                   the beginning of the set if none was drawn; whole set is evaluated if it is not smaller than the set
+     * @param interpreter function turning model's output into class, as NetworkController.interpretOutput()
+     * @return numbers of false positives and undetected frauds
+     */
+    public Result evaluate(InferenceModel model, int sampleSize, ToIntFunction<double[]> interpreter) {
+        int samples = Math.min(sampleSize, numberOfRows);
+        List<Callable<Result>> tasks = new ArrayList<>(threads);
+        for (int i = 0; i < threads; ++i) {
+            int first = samples * i / threads;
+            int last = samples * (i + 1) / threads;
+            tasks.add(() -> evaluateRange(model, interpreter, first, last));
+        }
+        Result result = new Result(0, 0, samples);
+        try {
+            for (Future<Result> partial : executor.invokeAll(tasks)) {
+                result.falsePositives += partial.get().falsePositives;
+                result.undetectedFrauds += partial.get().undetectedFrauds;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Validation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Validation failed", e.getCause());
+        }
+        return result;
+    }
+
+    /**
+     * stops evaluation threads
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private Result evaluateRange(InferenceModel model, ToIntFunction<double[]> interpreter, int first, int last) {
+        double[] input = new double[numberOfInputs];
+        double[] output = new double[model.getNumberOfOutputs()];
+        Result result = new Result(0, 0, last - first);
+        for (int i = first; i < last; ++i) {
+            int row = order[i];
+            System.arraycopy(inputs, row * numberOfInputs, input, 0, numberOfInputs);
+            model.classify(input, output);
+            int classification = interpreter.applyAsInt(output);
+            if (classification != outputs[row]) {
+                if (classification == 0) {
+                    ++result.undetectedFrauds;
+                } else {
+                    ++result.falsePositives;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * numbers of wrong answers given on evaluated rows
+     */
+    public static class Result {
+        private int falsePositives;
+        private int undetectedFrauds;
+        private int evaluatedRows;
+
+        Result(int falsePositives, int undetectedFrauds, int evaluatedRows) {
+            this.falsePositives = falsePositives;
+            this.undetectedFrauds = undetectedFrauds;
+            this.evaluatedRows = evaluatedRows;
+        }
+
+        public int getFalsePositives() {
+            return falsePositives;
+        }
+
+        public int getUndetectedFrauds() {
+            return undetectedFrauds;
+        }
+
+        public int getEvaluatedRows() {
+            return evaluatedRows;
+        }
+
+        /**
+         * @param weight cost of undetected fraud relative to false positive
+         * @return weighted number of errors per evaluated row
+         */
+        public double getErrorRate(double weight) {
+            return evaluatedRows == 0 ? 0.0 : (falsePositives + undetectedFrauds * weight) / evaluatedRows;
+        }
+    }
+}
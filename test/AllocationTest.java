@@ -0,0 +1,72 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ *  training sessions must not allocate memory per sample once they are warmed up
+ */
+class AllocationTest {
+    private static final int SAMPLES = 1000;
+    private static final int WARMUP_EPOCHS = 100;
+    private static final int EPOCHS = 10;
+
+    // bytes allowed per epoch: far less than a single array of parameters per sample
+    private static final long TOLERANCE = 64;
+
+    private static Dataset dataset;
+
+    @BeforeAll
+    static void createDataset() {
+        dataset = TestData.create(SAMPLES, 1L);
+    }
+
+    @Test
+    void sequentialTrainingDoesNotAllocate() {
+        assertNoAllocation(new NetworkController(createNetwork()), 1, new InputParser(dataset));
+    }
+
+    @Test
+    void batchTrainingDoesNotAllocate() {
+        assertNoAllocation(new NetworkController(createNetwork()), 16, new InputParser(dataset));
+    }
+
+    @Test
+    void sampledTrainingDoesNotAllocate() {
+        NetworkController controller = new NetworkController(createNetwork());
+        controller.setSampler(EpochSampler.stratified(dataset, SAMPLES, 1L));
+        assertNoAllocation(controller, 1, new InputParser(dataset));
+    }
+
+    @Test
+    void normalizedTrainingDoesNotAllocate() {
+        InputParser inputParser = new InputParser(dataset);
+        inputParser.setNormalizer(Normalizer.fit(inputParser));
+        assertNoAllocation(new NetworkController(createNetwork()), 1, inputParser);
+    }
+
+    private static Network createNetwork() {
+        return new Network(TestData.PARAMETERS, 1, 2, 40, 1L);
+    }
+
+    /**
+     * runs training sessions and checks number of bytes allocated by a single session in steady state
+     */
+    private static void assertNoAllocation(NetworkController controller, int batchSize, InputParser inputParser) {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean, "Allocation counters are not available");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled(),
+                "Allocation counters are disabled");
+        long thread = Thread.currentThread().getId();
+        // warm-up lets JIT compile training loop, so that only allocations made by the code itself are counted
+        controller.teachUsingEpochs(SAMPLES, WARMUP_EPOCHS, batchSize, inputParser);
+        long before = threads.getThreadAllocatedBytes(thread);
+        controller.teachUsingEpochs(SAMPLES, EPOCHS, batchSize, inputParser);
+        long perEpoch = (threads.getThreadAllocatedBytes(thread) - before) / EPOCHS;
+        assertTrue(perEpoch <= TOLERANCE, "Training allocates " + perEpoch + " B per epoch");
+    }
+}
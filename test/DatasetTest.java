@@ -0,0 +1,89 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *  binary cache must return the parsed data and be used only for the same CSV file and settings
+ */
+class DatasetTest {
+    private static final String CSV = "a;b;class\n1.5;-2;0\n3;4.25;1\n";
+
+    @Test
+    void cacheGivesParsedData(@TempDir Path directory) throws IOException {
+        String csv = writeCsv(directory);
+
+        Dataset parsed = Dataset.open(csv, ';', true);
+        assertTrue(Dataset.isCacheValid(csv, ';', true));
+        Dataset cached = Dataset.load(Dataset.getCachePath(csv));
+
+        assertEquals(2, cached.getNumberOfRows());
+        assertEquals(2, cached.getNumberOfParameters());
+        for (int c = 0; c < parsed.getNumberOfParameters(); ++c) {
+            assertArrayEquals(parsed.getColumn(c), cached.getColumn(c));
+        }
+        assertEquals(0, cached.getOutput(0));
+        assertEquals(1, cached.getOutput(1));
+        assertArrayEquals(new double[] {3.0, 4.25}, row(Dataset.open(csv, ';', true), 1));
+    }
+
+    @Test
+    void cacheIsInvalidForOtherSettings(@TempDir Path directory) throws IOException {
+        String csv = writeCsv(directory);
+        Files.write(Paths.get(csv), "1.5;-2;0\n3;4.25;1\n".getBytes());
+        Files.setLastModifiedTime(Paths.get(csv), FileTime.fromMillis(System.currentTimeMillis() - 10000));
+        assertEquals(1, Dataset.open(csv, ';', true).getNumberOfRows());
+
+        assertFalse(Dataset.isCacheValid(csv, ',', true));
+        assertFalse(Dataset.isCacheValid(csv, ';', false));
+        assertEquals(2, Dataset.open(csv, ';', false).getNumberOfRows());
+        assertTrue(Dataset.isCacheValid(csv, ';', false));
+    }
+
+    @Test
+    void cacheIsInvalidAfterCsvChanges(@TempDir Path directory) throws IOException {
+        String csv = writeCsv(directory);
+        Dataset.open(csv, ';', true);
+
+        FileTime cacheTime = Files.getLastModifiedTime(Dataset.getCachePath(csv));
+        Files.setLastModifiedTime(Paths.get(csv), FileTime.fromMillis(cacheTime.toMillis() + 1000));
+
+        assertFalse(Dataset.isCacheValid(csv, ';', true));
+    }
+
+    @Test
+    void truncatedCacheIsRejected(@TempDir Path directory) throws IOException {
+        String csv = writeCsv(directory);
+        Dataset.open(csv, ';', true);
+        Path cache = Dataset.getCachePath(csv);
+        byte[] bytes = Files.readAllBytes(cache);
+        Files.write(cache, Arrays.copyOf(bytes, bytes.length - 1));
+
+        assertThrows(IOException.class, () -> Dataset.load(cache));
+    }
+
+    private static String writeCsv(Path directory) throws IOException {
+        Path csv = directory.resolve("data.csv");
+        Files.write(csv, CSV.getBytes());
+        // cache written right after the file must be newer even on file systems with coarse timestamps
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(System.currentTimeMillis() - 10000));
+        return csv.toString();
+    }
+
+    private static double[] row(Dataset dataset, int row) {
+        double[] parameters = new double[dataset.getNumberOfParameters()];
+        dataset.getParameters(row, parameters);
+        return parameters;
+    }
+}
@@ -0,0 +1,54 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *  approximated activation function must stay within its error bound and classify transactions
+ *  like the exact one
+ */
+class FastSigmoidalNeuronTest {
+    // arguments beyond this value are outside of the table of any tested steepness
+    private static final double RANGE = 16.0;
+    private static final double STEP = 1.0 / (64 * 256);
+
+    // allowed difference in numbers of false positives and undetected frauds; a transaction may change its class
+    // only if network's output is within about MAX_ERROR of the threshold, which is rare
+    private static final int COUNT_TOLERANCE = 1;
+
+    @Test
+    void approximationErrorIsWithinBound() {
+        for (double alpha : new double[] {SigmoidalNeuron.DEFAULT_ALPHA, 1.0, 4.0}) {
+            double maxError = measureMaxError(new FastSigmoidalNeuron(alpha), new SigmoidalNeuron(alpha));
+            assertTrue(maxError <= FastSigmoidalNeuron.MAX_ERROR, "Error " + maxError + " for alpha " + alpha);
+        }
+    }
+
+    @Test
+    void classificationMatchesExactActivation() {
+        Network network = new Network(TestData.PARAMETERS, 1, 2, 20, 1L);
+        NetworkController controller = new NetworkController(network);
+        controller.teachUsingEpochs(2000, 20, new InputParser(TestData.create(2000, 1L)));
+        InputParser testParser = new InputParser(TestData.create(5000, 2L));
+
+        controller.test(testParser);
+        int falsePositives = controller.getFalsePositives();
+        int undetectedFrauds = controller.getUndetectedFrauds();
+        network.setFastActivation(true);
+        controller.test(testParser);
+
+        assertEquals(falsePositives, controller.getFalsePositives(), COUNT_TOLERANCE);
+        assertEquals(undetectedFrauds, controller.getUndetectedFrauds(), COUNT_TOLERANCE);
+    }
+
+    /**
+     * @return maximal difference between approximated and exact activation function found on a dense grid of arguments
+     */
+    private static double measureMaxError(Neuron fast, Neuron exact) {
+        double maxError = 0.0;
+        for (double value = -RANGE; value <= RANGE; value += STEP) {
+            maxError = Math.max(maxError, Math.abs(fast.activate(value) - exact.activate(value)));
+        }
+        return maxError;
+    }
+}
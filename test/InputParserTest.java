@@ -0,0 +1,103 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ *  numbers parsed directly from bytes must be equal to the ones given by Double.parseDouble
+ */
+class InputParserTest {
+
+    @Test
+    void fieldsAreParsedLikeParseDouble() {
+        String[] fields = {
+                // mantissas around the largest exact one, 2^53 = 9007199254740992
+                "123456789012345", "0.123456789012345", "1234567890123456", "9007199254740991", "9007199254740993",
+                "12345678901234567", "0.12345678901234567", "3.141592653589793", "2.718281828459045e-3",
+                // exponents around the largest power of ten exact as double
+                "1e22", "1e23", "1e-22", "1e-23", "1.5E+22", "1.5E+23", "7e-22", "7e-23", "123.456e-20", "123.456e20",
+                // leading zeros, signs and other forms
+                "0", "-0", "-0.0", "+0", "0001.2500", "-000.001", "00000000000000000000123", "+42", "5.", ".5", "-.5",
+                "1e0", "1e-0", "1e400", "1e-400", "4.9e-324", "1.7976931348623157e308", "-1.2345e-5"
+        };
+        StringBuilder csv = new StringBuilder();
+        for (String field : fields) {
+            csv.append(field).append(';');
+        }
+        csv.setLength(csv.length() - 1);
+
+        double[] expected = new double[fields.length];
+        for (int i = 0; i < fields.length; ++i) {
+            expected[i] = Double.parseDouble(fields[i]);
+        }
+        // assertArrayEquals compares bits of doubles, so sign of zero is checked too
+        assertArrayEquals(expected, parse(csv + "\n").get(0));
+        assertArrayEquals(expected, parse(csv.toString()).get(0));
+    }
+
+    @Test
+    void malformedFieldsAreRejectedLikeParseDouble() {
+        for (String field : new String[]{"1e", "1e+", "-", ".", "", "1.2.3", "abc"}) {
+            assertThrows(NumberFormatException.class, () -> Double.parseDouble(field), field);
+            assertThrows(NumberFormatException.class, () -> parse("1;" + field + ";2\n"), field);
+        }
+    }
+
+    @Test
+    void crlfAndEmptyLinesAreHandled() {
+        List<double[]> lines = parse("1.5;-2\r\n\r\n3;4e1\r\n\n5;0.25");
+
+        assertEquals(3, lines.size());
+        assertArrayEquals(new double[]{1.5, -2.0}, lines.get(0));
+        assertArrayEquals(new double[]{3.0, 40.0}, lines.get(1));
+        assertArrayEquals(new double[]{5.0, 0.25}, lines.get(2));
+    }
+
+    @Test
+    void linesLongerThanBufferAreParsed() {
+        // about 200 KB per line, more than three times the default buffer
+        int fields = 20000;
+        StringBuilder line = new StringBuilder();
+        double[] expected = new double[fields];
+        for (int i = 0; i < fields; ++i) {
+            String field = (i % 2 == 0 ? "-" : "") + i + "." + (i * 7 % 1000);
+            expected[i] = Double.parseDouble(field);
+            line.append(field).append(i + 1 < fields ? ";" : "\r\n");
+        }
+        String csv = "1;2\n" + line + line + "3;4\n";
+
+        for (int bufferSize : new int[]{1 << 16, 16}) {
+            List<double[]> lines = parse(csv, bufferSize);
+            assertEquals(4, lines.size());
+            assertArrayEquals(new double[]{1.0, 2.0}, lines.get(0));
+            assertArrayEquals(expected, lines.get(1));
+            assertArrayEquals(expected, lines.get(2));
+            assertArrayEquals(new double[]{3.0, 4.0}, lines.get(3));
+        }
+    }
+
+    private static List<double[]> parse(String csv) {
+        return parse(csv, 1 << 16);
+    }
+
+    /**
+     * @return parameters of all lines of given unlabelled CSV data
+     */
+    private static List<double[]> parse(String csv, int bufferSize) {
+        byte[] bytes = csv.getBytes(StandardCharsets.US_ASCII);
+        InputParser inputParser = new InputParser(Channels.newChannel(new ByteArrayInputStream(bytes)), ';', false, bufferSize);
+        inputParser.setLabelled(false);
+        List<double[]> lines = new ArrayList<>();
+        while (inputParser.nextLine()) {
+            lines.add(inputParser.getParameters().clone());
+        }
+        return lines;
+    }
+}
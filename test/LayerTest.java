@@ -0,0 +1,106 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ *  flat layers must calculate the same outputs and weight corrections as neurons computed one by one
+ */
+class LayerTest {
+    private static final double[] INPUT = {0.5, -1.25, 2.0};
+    private static final int[] PATTERN = {1};
+
+    @Test
+    void outputsMatchNeuronByNeuronCalculation() {
+        Network network = new Network(INPUT.length, 1, 2, 4, 3L);
+
+        double[] expected = propagate(network.getLayers(), INPUT)[network.getLayers().length];
+
+        assertArrayEquals(expected, network.classify(INPUT), 1e-12);
+    }
+
+    @Test
+    void learningStepMatchesNeuronByNeuronBackPropagation() {
+        Network network = new Network(INPUT.length, 1, 2, 4, 3L);
+        Layer[] layers = network.getLayers();
+        double[][] expectedWeights = correctWeights(layers, network.getLearningRate());
+
+        network.learn(INPUT, PATTERN);
+        network.validateLearning();
+
+        for (int l = 0; l < layers.length; ++l) {
+            assertArrayEquals(expectedWeights[l], layers[l].getWeights(), 1e-12);
+        }
+    }
+
+    /**
+     * @return input vector followed by outputs of all layers
+     */
+    private static double[][] propagate(Layer[] layers, double[] input) {
+        double[][] outputs = new double[layers.length + 1][];
+        outputs[0] = input;
+        for (int l = 0; l < layers.length; ++l) {
+            Layer layer = layers[l];
+            outputs[l + 1] = new double[layer.getSize()];
+            for (int n = 0; n < layer.getSize(); ++n) {
+                outputs[l + 1][n] = layer.getNeuron().activate(sum(layer, n, outputs[l]));
+            }
+        }
+        return outputs;
+    }
+
+    private static double sum(Layer layer, int neuron, double[] input) {
+        int row = neuron * layer.getStride();
+        double sum = 0.0;
+        for (int i = 0; i < layer.getNumberOfInputs(); ++i) {
+            sum += layer.getWeights()[row + i] * input[i];
+        }
+        if (layer.getNeuron().isConstAddendEnabled()) {
+            sum += layer.getWeights()[row + layer.getNumberOfInputs()];
+        }
+        return sum;
+    }
+
+    /**
+     * @return weights of all layers after a single back propagation step with momentum
+     */
+    private static double[][] correctWeights(Layer[] layers, double learningRate) {
+        double[][] outputs = propagate(layers, INPUT);
+        double[][] deltas = new double[layers.length][];
+        for (int l = layers.length - 1; l >= 0; --l) {
+            Layer layer = layers[l];
+            deltas[l] = new double[layer.getSize()];
+            for (int n = 0; n < layer.getSize(); ++n) {
+                double error;
+                if (l == layers.length - 1) {
+                    error = PATTERN[n] - outputs[l + 1][n];
+                } else {
+                    error = 0.0;
+                    for (int j = 0; j < layers[l + 1].getSize(); ++j) {
+                        error += deltas[l + 1][j] * layers[l + 1].getWeights()[j * layers[l + 1].getStride() + n];
+                    }
+                }
+                double output = outputs[l + 1][n];
+                deltas[l][n] = error * layer.getNeuron().activateDerivative(sum(layer, n, outputs[l]), output);
+            }
+        }
+        double[][] weights = new double[layers.length][];
+        for (int l = 0; l < layers.length; ++l) {
+            Layer layer = layers[l];
+            double momentum = layer.getMomentum();
+            weights[l] = layer.getWeights().clone();
+            for (int n = 0; n < layer.getSize(); ++n) {
+                int row = n * layer.getStride();
+                for (int i = 0; i <= layer.getNumberOfInputs(); ++i) {
+                    boolean constInput = i == layer.getNumberOfInputs();
+                    if (constInput && !layer.getNeuron().isConstAddendEnabled()) {
+                        continue;
+                    }
+                    double change = 2 * learningRate * deltas[l][n] * (constInput ? 1.0 : outputs[l][i]);
+                    double previous = layer.getState()[row + i];
+                    weights[l][row + i] += change + momentum * (weights[l][row + i] - previous);
+                }
+            }
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,120 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *  network stored in model file must be restored with all its settings
+ */
+class NetworkTest {
+
+    @Test
+    void loadedNetworkKeepsFastActivationAndPrunedWeights(@TempDir Path directory) throws IOException {
+        Network network = new Network(TestData.PARAMETERS, 1, 2, 10, 1L);
+        new NetworkController(network).teachUsingEpochs(500, 2, new InputParser(TestData.create(500, 1L)));
+        network.setFastActivation(true);
+        Pruner.keepLargest(5).prune(network);
+        Path path = directory.resolve("network.model");
+        network.save(path);
+
+        Network loaded = Network.load(path);
+
+        Layer[] layers = network.getLayers();
+        Layer[] loadedLayers = loaded.getLayers();
+        for (int l = 0; l < layers.length; ++l) {
+            assertEquals(layers[l].getNeuron().getClass(), loadedLayers[l].getNeuron().getClass());
+            assertArrayEquals(layers[l].getWeights(), loadedLayers[l].getWeights());
+            assertArrayEquals(layers[l].getPrunedWeights(), loadedLayers[l].getPrunedWeights());
+        }
+        assertTrue(loadedLayers[0].getNeuron() instanceof FastSigmoidalNeuron);
+        double[] input = new double[TestData.PARAMETERS];
+        input[0] = 1.0;
+        assertArrayEquals(network.classify(input), loaded.classify(input));
+    }
+
+    @Test
+    void loadedNetworkWithoutPruningKeepsExactActivation(@TempDir Path directory) throws IOException {
+        Network network = new Network(TestData.PARAMETERS, 1, 1, 10, 1L);
+        Path path = directory.resolve("network.model");
+        network.save(path);
+
+        for (Layer layer : Network.load(path).getLayers()) {
+            assertNull(layer.getPrunedWeights());
+            assertFalse(layer.getNeuron() instanceof FastSigmoidalNeuron);
+        }
+    }
+
+    @Test
+    void truncatedModelFileIsRejected(@TempDir Path directory) throws IOException {
+        Network network = new Network(TestData.PARAMETERS, 1, 1, 10, 1L);
+        Pruner.keepLargest(5).prune(network);
+        Path path = directory.resolve("network.model");
+        network.save(path);
+        byte[] content = Files.readAllBytes(path);
+
+        // cut inside header, inside layer descriptions, inside weights and inside pruned indices
+        for (int length : new int[]{10, 50, content.length / 2, content.length - 1}) {
+            Files.write(path, Arrays.copyOf(content, length));
+            assertThrows(IOException.class, () -> Network.load(path));
+        }
+    }
+
+    @Test
+    void batchOfOneSampleEqualsLearn() {
+        Network batch = new Network(TestData.PARAMETERS, 1, 2, 10, 1L);
+        Network single = batch.copy();
+        Dataset dataset = TestData.create(20, 2L);
+        double[] input = new double[TestData.PARAMETERS];
+        for (int row = 0; row < dataset.getNumberOfRows(); ++row) {
+            dataset.getParameters(row, input);
+            int[] pattern = {dataset.getOutput(row)};
+            batch.learnBatch(new double[][]{input}, new int[][]{pattern});
+            single.learn(input, pattern);
+            single.validateLearning();
+        }
+
+        assertSameWeights(single, batch);
+    }
+
+    @Test
+    void batchAppliesChangesAveragedOverSamples() {
+        Network batch = new Network(TestData.PARAMETERS, 1, 2, 10, 1L);
+        Network averaged = batch.copy();
+        Network worker = averaged.createWorker();
+        Dataset dataset = TestData.create(8, 2L);
+        double[][] inputs = new double[dataset.getNumberOfRows()][TestData.PARAMETERS];
+        int[][] patterns = new int[dataset.getNumberOfRows()][1];
+        for (int row = 0; row < inputs.length; ++row) {
+            dataset.getParameters(row, inputs[row]);
+            patterns[row][0] = dataset.getOutput(row);
+            worker.learn(inputs[row], patterns[row]);
+        }
+        averaged.addChanges(worker, 1.0 / inputs.length);
+        averaged.validateLearning();
+
+        batch.learnBatch(inputs, patterns);
+
+        assertSameWeights(averaged, batch);
+        double[][] outputs = new double[inputs.length][1];
+        batch.classifyBatch(inputs, inputs.length, outputs);
+        for (int row = 0; row < inputs.length; ++row) {
+            assertArrayEquals(batch.classify(inputs[row]), outputs[row], 1e-12);
+        }
+    }
+
+    private static void assertSameWeights(Network expected, Network actual) {
+        for (int l = 0; l < expected.getLayers().length; ++l) {
+            assertArrayEquals(expected.getLayers()[l].getWeights(), actual.getLayers()[l].getWeights(), 1e-12);
+        }
+    }
+}
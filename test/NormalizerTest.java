@@ -0,0 +1,80 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ *  network folded with normalizer statistics must work on raw parameters like the original one on standardized ones
+ */
+class NormalizerTest {
+    private static final int ROWS = 500;
+
+    @Test
+    void foldedNetworkGivesOutputsOfNormalizedInput() {
+        Dataset dataset = createRawData();
+        Normalizer normalizer = Normalizer.fit(new InputParser(dataset));
+        Dataset normalized = createRawData();
+        normalizer.normalize(normalized);
+        Network network = train(normalized);
+
+        Network folded = normalizer.fold(network);
+
+        double[] raw = new double[TestData.PARAMETERS];
+        double[] standardized = new double[TestData.PARAMETERS];
+        for (int row = 0; row < ROWS; row += 50) {
+            dataset.getParameters(row, raw);
+            normalized.getParameters(row, standardized);
+            assertEquals(network.classify(standardized)[0], folded.classify(raw)[0], 1e-9);
+        }
+    }
+
+    @Test
+    void foldedNetworkKeepsMomentumOfLastMove() {
+        Dataset normalized = createRawData();
+        Normalizer normalizer = Normalizer.fit(new InputParser(normalized));
+        normalizer.normalize(normalized);
+        Network network = train(normalized);
+
+        Network folded = normalizer.fold(network);
+
+        Layer layer = network.getLayers()[0];
+        Layer foldedLayer = folded.getLayers()[0];
+        int inputs = layer.getNumberOfInputs();
+        boolean constAddend = layer.getNeuron().isConstAddendEnabled();
+        for (int row = 0; row < layer.getWeights().length; row += layer.getStride()) {
+            double constMove = constAddend ? move(layer, row + inputs) : 0.0;
+            for (int i = 0; i < inputs; ++i) {
+                double inputMove = move(layer, row + i) / normalizer.getStandardDeviation(i);
+                assertEquals(inputMove, move(foldedLayer, row + i), 1e-9);
+                constMove -= inputMove * normalizer.getMean(i);
+            }
+            assertEquals(constMove, move(foldedLayer, row + inputs), 1e-9);
+        }
+    }
+
+    /**
+     * @return data set whose parameters have various means and standard deviations
+     */
+    private static Dataset createRawData() {
+        Dataset dataset = TestData.create(ROWS, 1L);
+        for (int c = 0; c < dataset.getNumberOfParameters(); ++c) {
+            double[] column = dataset.getColumn(c);
+            for (int row = 0; row < column.length; ++row) {
+                column[row] = (c + 1) * 10.0 * column[row] + 100.0 * c;
+            }
+        }
+        return dataset;
+    }
+
+    private static Network train(Dataset dataset) {
+        Network network = new Network(TestData.PARAMETERS, 1, 1, 10, 1L);
+        new NetworkController(network).teachUsingEpochs(ROWS, 2, new InputParser(dataset));
+        return network;
+    }
+
+    /**
+     * @return last move of a weight remembered by momentum optimizer
+     */
+    private static double move(Layer layer, int weight) {
+        return layer.getWeights()[weight] - layer.getState()[weight];
+    }
+}
@@ -0,0 +1,76 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ *  optimizers must move weights by the textbook formulas; expected values are calculated by hand
+ *  for a weight equal to 1.0 corrected with changes 0.5 and then -0.2
+ */
+class OptimizerTest {
+    // a single row of one trained weight and one const input weight, which is not trained
+    private static final int STRIDE = 2;
+    private static final int COLUMNS = 1;
+
+    @Test
+    void adamStepsMatchHandCalculation() {
+        // epsilon 0 makes the folded bias correction equal to the textbook one
+        Optimizer adam = new AdamOptimizer(0.1, 0.9, 0.999, 0.0);
+        double[] weights = {1.0, 3.0};
+        double[] state = new double[adam.getStateSize() * weights.length];
+
+        // m = 0.05, v = 0.00025, bias corrected: m = 0.5, v = 0.25, move = 0.1 * 0.5 / 0.5
+        adam.correct(weights, state, new double[]{0.5, 7.0}, STRIDE, COLUMNS, 1);
+        assertArrayEquals(new double[]{1.1, 3.0}, weights, 1e-12);
+        assertArrayEquals(new double[]{0.05, 0.0, 0.00025, 0.0}, state, 1e-15);
+
+        // m = 0.025, v = 0.00028975, bias corrected: m = 0.025 / 0.19, v = 0.00028975 / 0.001999
+        adam.correct(weights, state, new double[]{-0.2, 7.0}, STRIDE, COLUMNS, 2);
+        assertEquals(1.134560584791259, weights[0], 1e-12);
+        assertEquals(3.0, weights[1]);
+    }
+
+    @Test
+    void rmsPropStepsMatchHandCalculation() {
+        Optimizer rmsProp = new RmsPropOptimizer(0.01, 0.9, 0.0);
+        double[] weights = {1.0, 3.0};
+        double[] state = new double[rmsProp.getStateSize() * weights.length];
+
+        // mean square 0.025, move = 0.01 * 0.5 / sqrt(0.025)
+        rmsProp.correct(weights, state, new double[]{0.5, 7.0}, STRIDE, COLUMNS, 1);
+        assertEquals(1.0316227766016839, weights[0], 1e-12);
+        assertEquals(0.025, state[0], 1e-15);
+
+        // mean square 0.0265, move = 0.01 * -0.2 / sqrt(0.0265)
+        rmsProp.correct(weights, state, new double[]{-0.2, 7.0}, STRIDE, COLUMNS, 2);
+        assertEquals(1.0193368742650049, weights[0], 1e-12);
+        assertEquals(3.0, weights[1]);
+    }
+
+    @Test
+    void momentumStepsMatchHandCalculation() {
+        Optimizer momentum = new MomentumOptimizer(0.5);
+        double[] weights = {1.0, 3.0};
+        // previous weights equal to current ones, so the first step has no momentum
+        double[] state = weights.clone();
+
+        momentum.correct(weights, state, new double[]{0.5, 7.0}, STRIDE, COLUMNS, 1);
+        assertEquals(1.5, weights[0], 1e-15);
+
+        // -0.2 plus half of the previous move 0.5
+        momentum.correct(weights, state, new double[]{-0.2, 7.0}, STRIDE, COLUMNS, 2);
+        assertEquals(1.55, weights[0], 1e-15);
+        assertEquals(1.5, state[0], 1e-15);
+        assertEquals(3.0, weights[1]);
+    }
+
+    @Test
+    void changesAreCleared() {
+        for (Optimizer optimizer : new Optimizer[]{new AdamOptimizer(), new RmsPropOptimizer(), new MomentumOptimizer(0.5)}) {
+            double[] weights = {1.0, 3.0};
+            double[] changes = {0.5, 0.0};
+            optimizer.correct(weights, new double[optimizer.getStateSize() * weights.length], changes, STRIDE, STRIDE, 1);
+            assertArrayEquals(new double[2], changes, optimizer.getClass().getName());
+        }
+    }
+}
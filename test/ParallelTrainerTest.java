@@ -0,0 +1,46 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ *  averaging changes of workers must give the same weights as training on the whole batch in one thread
+ */
+class ParallelTrainerTest {
+    private static final int BATCH_SIZE = 16;
+
+    @Test
+    void oneThreadEqualsSequentialBatch() {
+        assertParallelEqualsSequential(1);
+    }
+
+    @Test
+    void severalThreadsEqualSequentialBatch() {
+        assertParallelEqualsSequential(3);
+    }
+
+    private static void assertParallelEqualsSequential(int threads) {
+        Network sequential = new Network(TestData.PARAMETERS, 1, 2, 10, 1L);
+        Network parallel = sequential.copy();
+        Dataset dataset = TestData.create(4 * BATCH_SIZE, 2L);
+        double[][] inputs = new double[BATCH_SIZE][TestData.PARAMETERS];
+        int[][] patterns = new int[BATCH_SIZE][1];
+        ParallelTrainer trainer = new ParallelTrainer(parallel, threads);
+        try {
+            for (int first = 0; first < dataset.getNumberOfRows(); first += BATCH_SIZE) {
+                for (int i = 0; i < BATCH_SIZE; ++i) {
+                    dataset.getParameters(first + i, inputs[i]);
+                    patterns[i][0] = dataset.getOutput(first + i);
+                }
+                sequential.learnBatch(inputs, patterns);
+                trainer.learnBatch(inputs, patterns, BATCH_SIZE);
+            }
+        } finally {
+            trainer.shutdown();
+        }
+
+        for (int l = 0; l < sequential.getLayers().length; ++l) {
+            // workers sum their changes separately, so only the order of additions differs
+            assertArrayEquals(sequential.getLayers()[l].getWeights(), parallel.getLayers()[l].getWeights(), 1e-12);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ *  synthetic transactions shared by tests
+ */
+final class TestData {
+    static final int PARAMETERS = 29;
+
+    private TestData() {
+    }
+
+    /**
+     * creates data set of gaussian parameters, where transaction is a fraud if a fixed linear combination
+     * of its parameters with some noise is large, so that networks can learn it
+     * @param rows number of rows
+     * @param seed seed of generated values
+     * @return data set
+     */
+    static Dataset create(int rows, long seed) {
+        Random random = new Random(seed);
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < rows; ++i) {
+            double score = 0.0;
+            for (int j = 0; j < PARAMETERS; ++j) {
+                double value = random.nextGaussian();
+                score += (j % 3 == 0) ? value : -0.5 * value;
+                csv.append(value).append(';');
+            }
+            csv.append(score + random.nextGaussian() > 2.0 ? 1 : 0).append('\n');
+        }
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.US_ASCII);
+        InputParser inputParser = new InputParser(Channels.newChannel(new ByteArrayInputStream(bytes)), ';', false);
+        return Dataset.fromParser(inputParser);
+    }
+}
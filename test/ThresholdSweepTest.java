@@ -0,0 +1,116 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *  sweep must give the same confusion matrices and AUC as classifying every transaction separately
+ */
+class ThresholdSweepTest {
+    private static final double WEIGHT = 1.0;
+
+    @Test
+    void tiedThresholdsGiveTheLowestOne() {
+        ThresholdSweep sweep = sweep(new double[] {0.1, 0.6}, new double[] {0.3, 0.9});
+        // thresholds 0.3 and 0.9 both give one error
+        assertEquals(0.3, sweep.getBestThreshold(WEIGHT));
+    }
+
+    @Test
+    void thresholdTiedWithClassifyingNothingAsFraudIsPreferred() {
+        ThresholdSweep sweep = sweep(new double[] {0.5}, new double[] {0.5});
+        assertEquals(0.5, sweep.getBestThreshold(WEIGHT));
+    }
+
+    @Test
+    void onlyLegitimateTransactions() {
+        ThresholdSweep sweep = sweep(new double[] {0.2, 0.7}, new double[0]);
+        assertEquals(Double.POSITIVE_INFINITY, sweep.getBestThreshold(WEIGHT));
+        assertEquals(0, sweep.getFalsePositives(sweep.getBestThreshold(WEIGHT)));
+        assertTrue(Double.isNaN(sweep.getAuc()));
+    }
+
+    @Test
+    void onlyFrauds() {
+        ThresholdSweep sweep = sweep(new double[0], new double[] {0.2, 0.7});
+        assertEquals(0.2, sweep.getBestThreshold(WEIGHT));
+        assertEquals(0, sweep.getUndetectedFrauds(0.2));
+        assertTrue(Double.isNaN(sweep.getAuc()));
+    }
+
+    @Test
+    void nanScoreIsNeverClassifiedAsFraud() {
+        ThresholdSweep sweep = sweep(new double[] {Double.NaN, Double.NEGATIVE_INFINITY}, new double[] {Double.NaN, 0.4});
+        assertEquals(2, sweep.getNumberOfLegitimateTransactions());
+        assertEquals(2, sweep.getNumberOfFrauds());
+        assertEquals(1, sweep.getFalsePositives(Double.NEGATIVE_INFINITY));
+        assertEquals(1, sweep.getUndetectedFrauds(Double.NEGATIVE_INFINITY));
+        assertEquals(2, sweep.getUndetectedFrauds(Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    void resultsMatchClassifyingEveryTransaction() {
+        Random random = new Random(1);
+        int count = 500;
+        double[] scores = new double[count];
+        byte[] labels = new byte[count];
+        for (int i = 0; i < count; ++i) {
+            labels[i] = (byte) (random.nextInt(4) == 0 ? 1 : 0);
+            // few distinct values give many ties
+            scores[i] = random.nextInt(50) == 0 ? Double.NaN : Math.round((random.nextGaussian() + labels[i]) * 4) / 4.0;
+        }
+        ThresholdSweep sweep = new ThresholdSweep(scores, labels, count);
+
+        for (double threshold : new double[] {Double.NEGATIVE_INFINITY, -1.0, 0.0, 0.25, 0.5, 1.0, 3.0, Double.POSITIVE_INFINITY}) {
+            int falsePositives = 0;
+            int undetectedFrauds = 0;
+            for (int i = 0; i < count; ++i) {
+                boolean fraud = scores[i] >= threshold;
+                falsePositives += (labels[i] == 0 && fraud) ? 1 : 0;
+                undetectedFrauds += (labels[i] != 0 && !fraud) ? 1 : 0;
+            }
+            assertEquals(falsePositives, sweep.getFalsePositives(threshold), "threshold " + threshold);
+            assertEquals(undetectedFrauds, sweep.getUndetectedFrauds(threshold), "threshold " + threshold);
+        }
+        assertEquals(bruteForceAuc(scores, labels), sweep.getAuc(), 1e-12);
+    }
+
+    /**
+     * @return share of pairs of fraud and legitimate transaction where fraud has higher score, ties counted as half,
+     * NaN lower than any other score
+     */
+    private static double bruteForceAuc(double[] scores, byte[] labels) {
+        double pairs = 0.0;
+        long total = 0;
+        for (int f = 0; f < scores.length; ++f) {
+            if (labels[f] == 0) {
+                continue;
+            }
+            for (int l = 0; l < scores.length; ++l) {
+                if (labels[l] != 0) {
+                    continue;
+                }
+                double fraud = Double.isNaN(scores[f]) ? Double.NEGATIVE_INFINITY : scores[f];
+                double legitimate = Double.isNaN(scores[l]) ? Double.NEGATIVE_INFINITY : scores[l];
+                boolean tie = (Double.isNaN(scores[f]) == Double.isNaN(scores[l])) && fraud == legitimate;
+                pairs += tie ? 0.5 : (fraud > legitimate || (Double.isNaN(scores[l]) && !Double.isNaN(scores[f])) ? 1.0 : 0.0);
+                ++total;
+            }
+        }
+        return pairs / total;
+    }
+
+    private static ThresholdSweep sweep(double[] legitimateScores, double[] fraudScores) {
+        int count = legitimateScores.length + fraudScores.length;
+        double[] scores = new double[count];
+        byte[] labels = new byte[count];
+        System.arraycopy(legitimateScores, 0, scores, 0, legitimateScores.length);
+        System.arraycopy(fraudScores, 0, scores, legitimateScores.length, fraudScores.length);
+        for (int i = legitimateScores.length; i < count; ++i) {
+            labels[i] = 1;
+        }
+        return new ThresholdSweep(scores, labels, count);
+    }
+}